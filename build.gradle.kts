@@ -5,6 +5,9 @@ val jjwtVersion: String by extra("0.11.5")
 val mapstructVersion: String by extra("1.6.2")
 val vavrVersion: String by extra("0.10.4")
 val jacocoVersion: String by extra("0.8.12")
+val jmhCoreVersion: String by extra("1.37")
+val greenmailVersion: String by extra("2.1.3")
+val datasourceProxyVersion: String by extra("1.10")
 
 plugins {
     java
@@ -13,6 +16,8 @@ plugins {
     id("io.spring.dependency-management") version "1.1.7"
     id("maven-publish")
     id("org.springdoc.openapi-gradle-plugin") version "1.9.0"
+    id("me.champeau.jmh") version "0.7.2"
+    id("org.graalvm.buildtools.native") version "0.10.6" // enables Spring AOT processing (processAot) for the JVM jar
 }
 
 group = "co.medina.starter"
@@ -31,6 +36,15 @@ configurations {
     }
 }
 
+// In-process HTTP load test harness (src/loadTest/java), run with ./gradlew loadTest
+val loadTest: SourceSet by sourceSets.creating {
+    compileClasspath += sourceSets.main.get().output
+    runtimeClasspath += sourceSets.main.get().output
+}
+
+configurations[loadTest.implementationConfigurationName].extendsFrom(configurations.implementation.get())
+configurations[loadTest.runtimeOnlyConfigurationName].extendsFrom(configurations.runtimeOnly.get())
+
 repositories {
     mavenCentral()
 }
@@ -38,7 +52,9 @@ repositories {
 dependencies {
     // Implementations
     implementation("org.springframework.boot:spring-boot-starter-actuator")
+    implementation("org.springframework.boot:spring-boot-starter-aop") // @Timed on service and security beans
     implementation("org.springframework.boot:spring-boot-starter-data-jpa")
+    implementation("org.flywaydb:flyway-core") // Versioned schema migrations (src/main/resources/db/migration)
     implementation("org.springframework.boot:spring-boot-starter-data-rest")
     implementation("org.springframework.boot:spring-boot-starter-integration")
     implementation("org.springframework.boot:spring-boot-starter-security")
@@ -50,11 +66,15 @@ dependencies {
     implementation("io.vavr:vavr:$vavrVersion")
     implementation("org.mapstruct:mapstruct:$mapstructVersion")
     implementation("org.springdoc:springdoc-openapi-starter-webmvc-ui:2.6.0")
+    implementation("com.github.ben-manes.caffeine:caffeine") // Bounded in-memory caches
+    implementation("com.fasterxml.jackson.module:jackson-module-blackbird") // Optional generated property accessors
+    implementation("net.ttddyy:datasource-proxy:$datasourceProxyVersion") // JDBC statement telemetry
 
     // Runtime-only
     runtimeOnly("io.jsonwebtoken:jjwt-impl:$jjwtVersion")
     runtimeOnly("io.jsonwebtoken:jjwt-jackson:$jjwtVersion")
     runtimeOnly("com.h2database:h2")
+    runtimeOnly("io.micrometer:micrometer-registry-prometheus") // /actuator/prometheus
 
     // Compile-only and annotation processors (grouped)
     compileOnly("org.projectlombok:lombok")
@@ -70,7 +90,11 @@ dependencies {
     testImplementation("org.springframework.boot:spring-boot-starter-test")
     testImplementation("org.springframework.integration:spring-integration-test")
     testImplementation("org.springframework.security:spring-security-test")
+    testImplementation("com.icegreen:greenmail-junit5:$greenmailVersion") // In-process SMTP server
     testRuntimeOnly("org.junit.platform:junit-platform-launcher")
+
+    // Benchmarks (src/jmh/java)
+    jmh("org.springframework:spring-test")
 }
 
 tasks.withType<Test> {
@@ -82,6 +106,18 @@ jacoco {
     toolVersion = jacocoVersion
 }
 
+// Micro-benchmarks: ./gradlew jmh [-PjmhIncludes=<regex>] [-PjmhProfilers=gc]; results are JSON so releases can be compared
+jmh {
+    jmhVersion.set(jmhCoreVersion)
+    fork.set(1)
+    warmupIterations.set(3)
+    iterations.set(5)
+    resultFormat.set("JSON")
+    resultsFile.set(layout.buildDirectory.file("reports/jmh/results.json"))
+    (project.findProperty("jmhIncludes") as String?)?.let { includes.set(listOf(it)) }
+    (project.findProperty("jmhProfilers") as String?)?.let { profilers.set(it.split(",")) }
+}
+
 tasks.jacocoTestReport {
     dependsOn(tasks.test)
     reports {
@@ -91,6 +127,70 @@ tasks.jacocoTestReport {
     }
 }
 
+// Spring AOT evaluates conditions at build time, so it runs against the prod profile; start the jar with
+// -Dspring.aot.enabled=true -Dspring.profiles.active=prod to use the generated bean definitions
+tasks.named<org.springframework.boot.gradle.tasks.aot.ProcessAot>("processAot") {
+    args("--spring.profiles.active=prod")
+}
+
+// Class data sharing: extractBootJar unpacks the boot jar into build/cds (application jar plus lib/), cdsArchive then
+// records every class loaded by a training run (prod profile, AOT on, exits once the context is refreshed)
+val cdsDir = layout.buildDirectory.dir("cds")
+val javaLauncher = javaToolchains.launcherFor(java.toolchain)
+
+val extractBootJar = tasks.register<Exec>("extractBootJar") {
+    group = "build"
+    description = "Extracts the boot jar into build/cds so it can be started with a CDS archive."
+    dependsOn(tasks.bootJar)
+    inputs.file(tasks.bootJar.flatMap { it.archiveFile })
+    outputs.dir(cdsDir)
+    doFirst {
+        delete(cdsDir)
+        executable = javaLauncher.get().executablePath.asFile.absolutePath
+        args("-Djarmode=tools", "-jar", tasks.bootJar.get().archiveFile.get().asFile.absolutePath,
+            "extract", "--destination", cdsDir.get().asFile.absolutePath)
+    }
+}
+
+tasks.register<Exec>("cdsArchive") {
+    group = "build"
+    description = "Writes build/cds/application.jsa from a training run of the extracted prod jar."
+    dependsOn(extractBootJar)
+    outputs.file(cdsDir.map { it.file("application.jsa") })
+    doFirst {
+        workingDir = cdsDir.get().asFile
+        executable = javaLauncher.get().executablePath.asFile.absolutePath
+        args("-XX:ArchiveClassesAtExit=application.jsa", "-Dspring.context.exit=onRefresh",
+            "-Dspring.aot.enabled=true", "-Dspring.profiles.active=prod", "-jar", tasks.bootJar.get().archiveFileName.get())
+    }
+}
+
+tasks.register<JavaExec>("startupBenchmark") {
+    group = "verification"
+    description = "Starts the boot jar as-is, with the prod profile, and with prod + AOT + CDS; reports time-to-ready and RSS."
+    dependsOn("cdsArchive")
+    classpath = loadTest.runtimeClasspath
+    mainClass.set("co.medina.starter.practice.loadtest.StartupBenchmark")
+    // Forward -PstartupBenchmark.* properties (runs, warmupRuns, timeoutSeconds, report)
+    systemProperties(project.properties.filterKeys { it.startsWith("startupBenchmark.") })
+    doFirst {
+        systemProperty("startupBenchmark.jar", tasks.bootJar.get().archiveFile.get().asFile.absolutePath)
+        systemProperty("startupBenchmark.cdsDir", cdsDir.get().asFile.absolutePath)
+    }
+}
+
+tasks.register<JavaExec>("loadTest") {
+    group = "verification"
+    description = "Boots the app on a random port against H2 and reports per-route throughput and latency percentiles."
+    classpath = loadTest.runtimeClasspath
+    mainClass.set("co.medina.starter.practice.loadtest.LoadTestRunner")
+    // Forward -PloadTest.* properties (clients, durationSeconds, warmupSeconds, mix, appArgs, ...)
+    systemProperties(project.properties.filterKeys { it.startsWith("loadTest.") })
+    if (project.hasProperty("loadTest.tracePinnedThreads")) {
+        jvmArgs("-Djdk.tracePinnedThreads=short")
+    }
+}
+
 publishing {
     publications {
         create<MavenPublication>("mavenJava") {
@@ -0,0 +1,61 @@
+package co.medina.starter.practice.security;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token issue and verification cost. {@code tokenCacheSize=0} disables the verified-token cache,
+ * so the two parameter values compare a cold HMAC verification with a replayed token.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class JwtUtilBenchmark {
+
+    private static final String SECRET = "uY5c9l4P1k8Q2h7bJcN4sGqzR6tVwXyZ3aB0cD1eF2g=";
+
+    @Param({"0", "10000"})
+    public long tokenCacheSize;
+
+    private JwtUtil jwtUtil;
+    private AppUserDetails user;
+    private String token;
+
+    @Setup
+    public void setup() {
+        jwtUtil = new JwtUtil(SECRET, 3_600_000, new VerifiedTokenCache(tokenCacheSize));
+        user = new AppUserDetails(1L, "bench@example.com", "", 0, true, List.of(new SimpleGrantedAuthority("ROLE_USER")));
+        token = jwtUtil.generateToken(user);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtUtil.generateToken(user);
+    }
+
+    @Benchmark
+    public boolean validateToken() {
+        return jwtUtil.validateToken(token, user);
+    }
+
+    /** What JwtAuthenticationFilter does per request in the user-store mode. */
+    @Benchmark
+    public boolean extractUsernameAndValidate() {
+        return jwtUtil.extractUsername(token) != null && jwtUtil.validateToken(token, user);
+    }
+
+    @Benchmark
+    public AppUserDetails extractPrincipal() {
+        return jwtUtil.extractPrincipal(token);
+    }
+}
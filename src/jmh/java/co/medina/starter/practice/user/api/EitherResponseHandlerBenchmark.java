@@ -0,0 +1,67 @@
+package co.medina.starter.practice.user.api;
+
+import co.medina.starter.practice.user.api.dto.UserResponse;
+import io.vavr.control.Either;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.http.server.ServletServerHttpResponse;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class EitherResponseHandlerBenchmark {
+
+    private EitherResponseHandler handler;
+    private MethodParameter returnType;
+    private ServletServerHttpRequest request;
+    private ServletServerHttpResponse response;
+    private Either<ApiError, UserResponse> right;
+    private Either<ApiError, UserResponse> left;
+
+    @Setup
+    public void setup() throws NoSuchMethodException {
+        handler = new EitherResponseHandler();
+        returnType = new MethodParameter(SampleController.class.getMethod("get"), -1);
+        request = new ServletServerHttpRequest(new MockHttpServletRequest("GET", "/v1/api/users/1"));
+        response = new ServletServerHttpResponse(new MockHttpServletResponse());
+        right = Either.right(UserResponse.builder().id(1L).email("a@b.com").name("A").build());
+        left = Either.left(new ApiError(HttpStatus.NOT_FOUND, "User not found: 1"));
+    }
+
+    @Benchmark
+    public boolean supports() {
+        return handler.supports(returnType, MappingJackson2HttpMessageConverter.class);
+    }
+
+    @Benchmark
+    public Object beforeBodyWriteRight() {
+        return handler.beforeBodyWrite(right, returnType, MediaType.APPLICATION_JSON,
+                MappingJackson2HttpMessageConverter.class, request, response);
+    }
+
+    @Benchmark
+    public Object beforeBodyWriteLeft() {
+        return handler.beforeBodyWrite(left, returnType, MediaType.APPLICATION_JSON,
+                MappingJackson2HttpMessageConverter.class, request, response);
+    }
+
+    public static class SampleController {
+        public Either<ApiError, UserResponse> get() {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package co.medina.starter.practice.user.api;
+
+import co.medina.starter.practice.user.api.dto.PageResponse;
+import co.medina.starter.practice.user.api.dto.UserResponse;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+/**
+ * JSON for {@code GET /v1/api/users/{id}} and {@code GET /v1/api/users?page=&size=20}: the generic
+ * {@code objectMapper.writer()} path and the serialized {@link PageImpl} the list endpoint used to return, against the
+ * pre-built writers of {@link UserJsonHttpMessageConverter} and the compact {@link PageResponse}, each with and
+ * without Blackbird. Bytes per response are printed once per fork.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class UserJsonBenchmark {
+
+    @Param({"false", "true"})
+    public boolean blackbird;
+
+    private ObjectMapper objectMapper;
+    private ObjectWriter userWriter;
+    private ObjectWriter pageWriter;
+    private UserResponse user;
+    private Page<UserResponse> pageImpl;
+    private PageResponse<UserResponse> compactPage;
+
+    @Setup
+    public void setup() throws JsonProcessingException {
+        Jackson2ObjectMapperBuilder builder = Jackson2ObjectMapperBuilder.json();
+        if (blackbird) {
+            builder.modulesToInstall(new BlackbirdModule());
+        }
+        objectMapper = builder.build();
+        userWriter = objectMapper.writerFor(UserResponse.class);
+        pageWriter = objectMapper.writerFor(objectMapper.getTypeFactory()
+                .constructParametricType(PageResponse.class, UserResponse.class));
+
+        user = user(1);
+        List<UserResponse> users = LongStream.rangeClosed(1, 20).mapToObj(UserJsonBenchmark::user).toList();
+        pageImpl = new PageImpl<>(users, PageRequest.of(0, 20, Sort.by("id")), 10_000);
+        compactPage = PageResponse.of(pageImpl);
+
+        System.out.printf("%nbytes per response (blackbird=%s): user=%d, PageImpl=%d, PageResponse=%d%n",
+                blackbird, objectMapper.writeValueAsBytes(user).length, objectMapper.writeValueAsBytes(pageImpl).length,
+                pageWriter.writeValueAsBytes(compactPage).length);
+    }
+
+    @Benchmark
+    public byte[] userGenericWriter() throws JsonProcessingException {
+        return objectMapper.writer().writeValueAsBytes(user);
+    }
+
+    @Benchmark
+    public byte[] userPrebuiltWriter() throws JsonProcessingException {
+        return userWriter.writeValueAsBytes(user);
+    }
+
+    @Benchmark
+    public byte[] pageImplGenericWriter() throws JsonProcessingException {
+        return objectMapper.writer().writeValueAsBytes(pageImpl);
+    }
+
+    @Benchmark
+    public byte[] compactPagePrebuiltWriter() throws JsonProcessingException {
+        return pageWriter.writeValueAsBytes(compactPage);
+    }
+
+    private static UserResponse user(long id) {
+        return UserResponse.builder()
+                .id(id)
+                .email("user" + id + "@example.com")
+                .mobileNumber("+34600" + String.format("%06d", id))
+                .name("User " + id)
+                .address("Calle Mayor " + id + ", Madrid")
+                .build();
+    }
+}
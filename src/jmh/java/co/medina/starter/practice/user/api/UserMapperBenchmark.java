@@ -0,0 +1,40 @@
+package co.medina.starter.practice.user.api;
+
+import co.medina.starter.practice.user.api.dto.UserResponse;
+import co.medina.starter.practice.user.domain.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class UserMapperBenchmark {
+
+    private UserMapper mapper;
+    private User user;
+
+    @Setup
+    public void setup() {
+        mapper = new UserMapperImpl();
+        user = User.builder()
+                .id(42L)
+                .email("john.doe@example.com")
+                .mobileNumber("1234567890")
+                .name("John Doe")
+                .address("742 Evergreen Terrace")
+                .password("$2a$10$abcdefghijklmnopqrstuv")
+                .build();
+    }
+
+    @Benchmark
+    public UserResponse toResponse() {
+        return mapper.toResponse(user);
+    }
+}
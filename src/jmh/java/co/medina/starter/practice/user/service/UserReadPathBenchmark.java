@@ -0,0 +1,106 @@
+package co.medina.starter.practice.user.service;
+
+import co.medina.starter.practice.PracticeApplication;
+import co.medina.starter.practice.user.api.UserMapper;
+import co.medina.starter.practice.user.api.dto.UserResponse;
+import co.medina.starter.practice.user.domain.User;
+import co.medina.starter.practice.user.repo.UserRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Entity read path (findById/findAll + MapStruct) against the UserView projection path, and the cached
+ * getViewById, through Hibernate and an in-memory H2 database. Run with {@code -PjmhProfilers=gc} to compare allocation
+ * per operation as well as latency.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class UserReadPathBenchmark {
+
+    private static final int USERS = 10_000;
+    private static final int PAGE_SIZE = 20;
+
+    private ConfigurableApplicationContext context;
+    private UserService userService;
+    private UserMapper userMapper;
+    private UserRepository userRepository;
+    private long minId;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        context = SpringApplication.run(PracticeApplication.class,
+                "--server.port=0",
+                "--spring.datasource.url=jdbc:h2:mem:read-path-bench;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+                "--logging.level.root=WARN");
+        userService = context.getBean(UserService.class);
+        userMapper = context.getBean(UserMapper.class);
+        userRepository = context.getBean(UserRepository.class);
+        List<User> saved = userRepository.saveAll(IntStream.range(0, USERS)
+                .mapToObj(i -> User.builder()
+                        .email("bench-" + i + "@example.com")
+                        .mobileNumber("1234567890")
+                        .name("Bench User " + i)
+                        .address("742 Evergreen Terrace")
+                        .password("$2a$10$abcdefghijklmnopqrstuvwxyz0123456789abcdefghijklmnopq")
+                        .verificationToken("0123456789abcdef0123456789abcdef")
+                        .build())
+                .toList());
+        minId = saved.get(0).getId();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public UserResponse getByIdEntity() {
+        return userService.getById(randomId()).map(userMapper::toResponse).get();
+    }
+
+    @Benchmark
+    public UserResponse getByIdProjection() {
+        // straight to the repository: UserService.getViewById is fronted by UserViewCache
+        return userMapper.toResponse(userRepository.findViewById(randomId()).orElseThrow());
+    }
+
+    @Benchmark
+    public UserResponse getByIdCached() {
+        return userService.getViewById(randomId()).map(userMapper::toResponse).get();
+    }
+
+    @Benchmark
+    public Page<UserResponse> listEntity() {
+        return userService.getAll(randomPage()).map(page -> page.map(userMapper::toResponse)).get();
+    }
+
+    @Benchmark
+    public Page<UserResponse> listProjection() {
+        return userService.getAllViews(randomPage()).map(page -> page.map(userMapper::toResponse)).get();
+    }
+
+    private long randomId() {
+        return minId + ThreadLocalRandom.current().nextInt(USERS);
+    }
+
+    private static PageRequest randomPage() {
+        return PageRequest.of(ThreadLocalRandom.current().nextInt(USERS / PAGE_SIZE), PAGE_SIZE);
+    }
+}
@@ -0,0 +1,72 @@
+package co.medina.starter.practice.loadtest;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Per-client latency samples grouped by route. Each client owns one recorder, so recording needs no
+ * synchronization; recorders are merged once the run is over.
+ */
+final class LatencyRecorder {
+
+    private final Map<String, Samples> routes = new TreeMap<>();
+
+    void record(String route, long nanos, boolean error) {
+        routes.computeIfAbsent(route, __ -> new Samples()).add(nanos, error);
+    }
+
+    void mergeInto(LatencyRecorder target) {
+        routes.forEach((route, samples) -> target.routes.computeIfAbsent(route, __ -> new Samples()).addAll(samples));
+    }
+
+    Map<String, RouteReport> report(double seconds) {
+        Map<String, RouteReport> report = new LinkedHashMap<>();
+        routes.forEach((route, samples) -> report.put(route, samples.report(seconds)));
+        return report;
+    }
+
+    record RouteReport(long requests, long errors, double throughputPerSecond,
+                       double p50Ms, double p95Ms, double p99Ms, double maxMs) {
+    }
+
+    private static final class Samples {
+        private long[] nanos = new long[1024];
+        private int size;
+        private long errors;
+
+        void add(long value, boolean error) {
+            if (size == nanos.length) {
+                nanos = Arrays.copyOf(nanos, size * 2);
+            }
+            nanos[size++] = value;
+            if (error) {
+                errors++;
+            }
+        }
+
+        void addAll(Samples other) {
+            for (int i = 0; i < other.size; i++) {
+                add(other.nanos[i], false);
+            }
+            errors += other.errors;
+        }
+
+        RouteReport report(double seconds) {
+            long[] sorted = Arrays.copyOf(nanos, size);
+            Arrays.sort(sorted);
+            return new RouteReport(size, errors, size / seconds,
+                    percentile(sorted, 0.50), percentile(sorted, 0.95), percentile(sorted, 0.99),
+                    size == 0 ? 0 : sorted[size - 1] / 1_000_000.0);
+        }
+
+        private static double percentile(long[] sorted, double p) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(p * sorted.length) - 1;
+            return sorted[Math.max(0, index)] / 1_000_000.0;
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package co.medina.starter.practice.loadtest;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Load test settings, read from {@code loadTest.*} system properties (forwarded from -P Gradle properties).
+ */
+record LoadTestConfig(int clients, Duration warmup, Duration duration, Map<Scenario, Integer> mix,
+                      List<String> appArgs, Path report) {
+
+    static final String DEFAULT_MIX = "register=1,confirm=1,login=2,create=2,get=10,update=2,delete=1,list=3";
+
+    static LoadTestConfig fromSystemProperties() {
+        return new LoadTestConfig(
+                Integer.getInteger("loadTest.clients", 50),
+                Duration.ofSeconds(Long.getLong("loadTest.warmupSeconds", 5)),
+                Duration.ofSeconds(Long.getLong("loadTest.durationSeconds", 30)),
+                parseMix(System.getProperty("loadTest.mix", DEFAULT_MIX)),
+                parseAppArgs(System.getProperty("loadTest.appArgs", "")),
+                Path.of(System.getProperty("loadTest.report", "build/reports/load-test/report.json")));
+    }
+
+    /** Parses "get=10,list=3" into scenario weights; scenarios left out get weight 0. */
+    static Map<Scenario, Integer> parseMix(String mix) {
+        Map<Scenario, Integer> weights = new EnumMap<>(Scenario.class);
+        for (String entry : mix.split(",")) {
+            if (entry.isBlank()) {
+                continue;
+            }
+            String[] parts = entry.trim().split("=");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Invalid mix entry: " + entry);
+            }
+            weights.put(Scenario.valueOf(parts[0].trim().toUpperCase(Locale.ROOT)), Integer.parseInt(parts[1].trim()));
+        }
+        if (weights.values().stream().mapToInt(Integer::intValue).sum() <= 0) {
+            throw new IllegalArgumentException("Mix must have at least one positive weight: " + mix);
+        }
+        return weights;
+    }
+
+    /** Extra Spring properties for the app under test, separated by ';' (e.g. "jwt.stateless.enabled=true"). */
+    private static List<String> parseAppArgs(String appArgs) {
+        return Arrays.stream(appArgs.split(";"))
+                .map(String::trim)
+                .filter(arg -> !arg.isEmpty())
+                .map(arg -> arg.startsWith("--") ? arg : "--" + arg)
+                .toList();
+    }
+}
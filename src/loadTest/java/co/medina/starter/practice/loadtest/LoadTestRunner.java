@@ -0,0 +1,124 @@
+package co.medina.starter.practice.loadtest;
+
+import co.medina.starter.practice.PracticeApplication;
+import co.medina.starter.practice.user.domain.User;
+import co.medina.starter.practice.user.repo.UserRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+
+/**
+ * Boots the application on a random port against an in-memory H2 database, drives the configured traffic
+ * mix from virtual-thread clients and writes per-route throughput and latency percentiles as JSON.
+ * <p>
+ * Run with {@code ./gradlew loadTest -PloadTest.clients=200 -PloadTest.durationSeconds=60}.
+ */
+public final class LoadTestRunner {
+
+    private LoadTestRunner() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestConfig config = LoadTestConfig.fromSystemProperties();
+
+        List<String> appArgs = new ArrayList<>(List.of(
+                "--server.port=0",
+                "--spring.datasource.url=jdbc:h2:mem:loadtest;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+                // every virtual client shares one IP
+                "--app.rate-limit.enabled=false",
+                "--logging.level.root=WARN"));
+        appArgs.addAll(config.appArgs());
+
+        try (ConfigurableApplicationContext context = SpringApplication.run(PracticeApplication.class, appArgs.toArray(String[]::new))) {
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            UserRepository users = context.getBean(UserRepository.class);
+            Function<String, Optional<String>> verificationTokens =
+                    email -> users.findByEmail(email).map(User::getVerificationToken);
+
+            Map<String, Object> report = run(config, "http://localhost:" + port, verificationTokens);
+            write(config, report);
+        }
+    }
+
+    private static Map<String, Object> run(LoadTestConfig config, String baseUrl,
+                                           Function<String, Optional<String>> verificationTokens) throws InterruptedException {
+        ObjectMapper json = new ObjectMapper();
+        Scenario[] weighted = weightedScenarios(config);
+        String runId = UUID.randomUUID().toString().substring(0, 8);
+
+        long start = System.nanoTime();
+        long measureFrom = start + config.warmup().toNanos();
+        long deadline = measureFrom + config.duration().toNanos();
+
+        List<VirtualClient> clients = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+             HttpClient http = HttpClient.newBuilder()
+                     .version(HttpClient.Version.HTTP_1_1)
+                     .connectTimeout(Duration.ofSeconds(10))
+                     .build()) {
+            for (int i = 0; i < config.clients(); i++) {
+                VirtualClient client = new VirtualClient(i, runId, http, baseUrl, weighted, measureFrom, deadline,
+                        verificationTokens, json);
+                clients.add(client);
+                executor.submit(client);
+            }
+        }
+
+        LatencyRecorder merged = new LatencyRecorder();
+        clients.forEach(client -> client.recorder().mergeInto(merged));
+        double seconds = config.duration().toMillis() / 1000.0;
+        Map<String, LatencyRecorder.RouteReport> routes = merged.report(seconds);
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("clients", config.clients());
+        report.put("warmupSeconds", config.warmup().toSeconds());
+        report.put("durationSeconds", seconds);
+        report.put("mix", config.mix());
+        report.put("appArgs", config.appArgs());
+        report.put("javaVersion", Runtime.version().toString());
+        report.put("availableProcessors", Runtime.getRuntime().availableProcessors());
+        report.put("totalRequests", routes.values().stream().mapToLong(LatencyRecorder.RouteReport::requests).sum());
+        report.put("totalErrors", routes.values().stream().mapToLong(LatencyRecorder.RouteReport::errors).sum());
+        report.put("routes", routes);
+        return report;
+    }
+
+    private static Scenario[] weightedScenarios(LoadTestConfig config) {
+        List<Scenario> weighted = new ArrayList<>();
+        config.mix().forEach((scenario, weight) -> {
+            for (int i = 0; i < weight; i++) {
+                weighted.add(scenario);
+            }
+        });
+        return weighted.toArray(Scenario[]::new);
+    }
+
+    private static void write(LoadTestConfig config, Map<String, Object> report) throws IOException {
+        Files.createDirectories(config.report().toAbsolutePath().getParent());
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(config.report().toFile(), report);
+
+        System.out.printf("%n%-28s %9s %7s %10s %9s %9s %9s %9s%n",
+                "route", "requests", "errors", "req/s", "p50 ms", "p95 ms", "p99 ms", "max ms");
+        @SuppressWarnings("unchecked")
+        Map<String, LatencyRecorder.RouteReport> routes = (Map<String, LatencyRecorder.RouteReport>) report.get("routes");
+        routes.forEach((route, r) -> System.out.printf("%-28s %9d %7d %10.1f %9.2f %9.2f %9.2f %9.2f%n",
+                route, r.requests(), r.errors(), r.throughputPerSecond(), r.p50Ms(), r.p95Ms(), r.p99Ms(), r.maxMs()));
+        System.out.println("Report written to " + config.report().toAbsolutePath());
+    }
+}
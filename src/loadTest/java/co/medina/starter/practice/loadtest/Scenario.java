@@ -0,0 +1,15 @@
+package co.medina.starter.practice.loadtest;
+
+/**
+ * Traffic types driven by the load test, mirroring the flows in the Postman collection.
+ */
+enum Scenario {
+    REGISTER,
+    CONFIRM,
+    LOGIN,
+    CREATE,
+    GET,
+    UPDATE,
+    DELETE,
+    LIST
+}
@@ -0,0 +1,220 @@
+package co.medina.starter.practice.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Starts the boot jar in separate JVMs and measures time-to-ready (process start until
+ * {@code /actuator/health/readiness} answers 200) and resident set size at that point, for three variants:
+ * <ul>
+ *   <li>{@code default}: the jar as it runs today (every auto-configuration, {@code ddl-auto=update})</li>
+ *   <li>{@code prod}: the lean prod profile</li>
+ *   <li>{@code prod-aot-cds}: the prod profile with the AOT-generated bean definitions and the CDS archive
+ *   written by {@code ./gradlew cdsArchive}</li>
+ * </ul>
+ * Every variant starts against the same H2 file database, migrated once by an unmeasured start before the runs, so
+ * each one finds the same initialized schema and none of them pays for creating it.
+ * <p>
+ * Run with {@code ./gradlew startupBenchmark -PstartupBenchmark.runs=10}.
+ */
+public final class StartupBenchmark {
+
+    private static final String CDS_ARCHIVE = "application.jsa";
+
+    private record Variant(String name, Path workingDir, List<String> jvmArgs, String jar) {
+    }
+
+    private record Sample(long readyMillis, long rssKb) {
+    }
+
+    private StartupBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Path jar = Path.of(required("startupBenchmark.jar"));
+        Path cdsDir = Path.of(required("startupBenchmark.cdsDir"));
+        int runs = Integer.getInteger("startupBenchmark.runs", 5);
+        int warmupRuns = Integer.getInteger("startupBenchmark.warmupRuns", 1);
+        Duration timeout = Duration.ofSeconds(Long.getLong("startupBenchmark.timeoutSeconds", 120));
+        Path report = Path.of(System.getProperty("startupBenchmark.report", "build/reports/startup/report.json"));
+        Path logs = report.toAbsolutePath().getParent();
+        Files.createDirectories(logs);
+        if (!Files.exists(cdsDir.resolve(CDS_ARCHIVE))) {
+            throw new IllegalStateException("No CDS archive in " + cdsDir + "; run ./gradlew cdsArchive first");
+        }
+        Path databaseDir = logs.resolve("db");
+        deleteRecursively(databaseDir);
+        List<String> appArgs = List.of("--spring.datasource.url=jdbc:h2:file:" + databaseDir.resolve("practice")
+                + ";DB_CLOSE_ON_EXIT=FALSE");
+
+        // the CDS variant must use the same working directory and -jar path as the training run
+        List<Variant> variants = List.of(
+                new Variant("default", jar.getParent(), List.of(), jar.getFileName().toString()),
+                new Variant("prod", jar.getParent(), List.of("-Dspring.profiles.active=prod"), jar.getFileName().toString()),
+                new Variant("prod-aot-cds", cdsDir,
+                        List.of("-XX:SharedArchiveFile=" + CDS_ARCHIVE, "-Dspring.aot.enabled=true", "-Dspring.profiles.active=prod"),
+                        jar.getFileName().toString()));
+
+        Map<String, Object> results = new LinkedHashMap<>();
+        try (HttpClient http = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(1)).build()) {
+            // applies the Flyway migrations; not measured
+            start(variants.get(1), appArgs, http, timeout, logs.resolve("init-db.log"));
+            for (Variant variant : variants) {
+                List<Sample> samples = new ArrayList<>();
+                for (int i = 0; i < warmupRuns + runs; i++) {
+                    Sample sample = start(variant, appArgs, http, timeout, logs.resolve(variant.name() + ".log"));
+                    if (i >= warmupRuns) {
+                        samples.add(sample);
+                    }
+                }
+                results.put(variant.name(), summarize(variant, samples));
+            }
+        }
+
+        Map<String, Object> out = new LinkedHashMap<>();
+        out.put("runs", runs);
+        out.put("warmupRuns", warmupRuns);
+        out.put("javaVersion", Runtime.version().toString());
+        out.put("availableProcessors", Runtime.getRuntime().availableProcessors());
+        out.put("variants", results);
+        write(report, out);
+    }
+
+    private static Sample start(Variant variant, List<String> appArgs, HttpClient http, Duration timeout, Path log)
+            throws IOException, InterruptedException {
+        int port = freePort();
+        List<String> command = new ArrayList<>();
+        command.add(ProcessHandle.current().info().command().orElse("java"));
+        command.addAll(variant.jvmArgs());
+        command.addAll(List.of("-jar", variant.jar(),
+                "--server.port=" + port,
+                "--management.endpoint.health.probes.enabled=true"));
+        command.addAll(appArgs);
+        HttpRequest readiness = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/actuator/health/readiness"))
+                .timeout(Duration.ofSeconds(1))
+                .build();
+
+        long startedAt = System.nanoTime();
+        Process process = new ProcessBuilder(command)
+                .directory(variant.workingDir().toFile())
+                .redirectErrorStream(true)
+                .redirectOutput(log.toFile())
+                .start();
+        try {
+            long deadline = startedAt + timeout.toNanos();
+            while (System.nanoTime() < deadline) {
+                if (!process.isAlive()) {
+                    throw new IllegalStateException(variant.name() + " exited with " + process.exitValue() + ", see " + log);
+                }
+                if (isReady(http, readiness)) {
+                    long readyMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt);
+                    return new Sample(readyMillis, rssKb(process.pid()));
+                }
+                Thread.sleep(10);
+            }
+            throw new IllegalStateException(variant.name() + " was not ready within " + timeout + ", see " + log);
+        } finally {
+            process.destroy();
+            if (!process.waitFor(30, TimeUnit.SECONDS)) {
+                process.destroyForcibly().waitFor();
+            }
+        }
+    }
+
+    private static boolean isReady(HttpClient http, HttpRequest readiness) throws InterruptedException {
+        try {
+            return http.send(readiness, HttpResponse.BodyHandlers.discarding()).statusCode() == 200;
+        } catch (IOException e) {
+            // refused, reset or timed out while the server is still starting
+            return false;
+        }
+    }
+
+    /** Resident set size from /proc (Linux), falling back to ps; -1 when neither is available. */
+    private static long rssKb(long pid) throws InterruptedException {
+        Path status = Path.of("/proc", Long.toString(pid), "status");
+        try {
+            if (Files.exists(status)) {
+                try (Stream<String> lines = Files.lines(status)) {
+                    return lines.filter(line -> line.startsWith("VmRSS:"))
+                            .map(line -> line.replaceAll("\\D+", ""))
+                            .mapToLong(Long::parseLong)
+                            .findFirst()
+                            .orElse(-1);
+                }
+            }
+            Process ps = new ProcessBuilder("ps", "-o", "rss=", "-p", Long.toString(pid)).start();
+            String out = new String(ps.getInputStream().readAllBytes()).trim();
+            return ps.waitFor() == 0 && !out.isEmpty() ? Long.parseLong(out) : -1;
+        } catch (IOException | NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static Map<String, Object> summarize(Variant variant, List<Sample> samples) {
+        long[] ready = samples.stream().mapToLong(Sample::readyMillis).sorted().toArray();
+        long[] rss = samples.stream().mapToLong(Sample::rssKb).sorted().toArray();
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("jvmArgs", variant.jvmArgs());
+        summary.put("readyMs", samples.stream().map(Sample::readyMillis).toList());
+        summary.put("medianReadyMs", ready[ready.length / 2]);
+        summary.put("minReadyMs", ready[0]);
+        summary.put("maxReadyMs", ready[ready.length - 1]);
+        summary.put("medianRssMb", rss[rss.length / 2] < 0 ? -1 : rss[rss.length / 2] / 1024.0);
+        return summary;
+    }
+
+    private static void write(Path report, Map<String, Object> out) throws IOException {
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(report.toFile(), out);
+
+        System.out.printf("%n%-16s %14s %11s %11s %14s%n", "variant", "median ready", "min ready", "max ready", "median RSS MB");
+        @SuppressWarnings("unchecked")
+        Map<String, Map<String, Object>> variants = (Map<String, Map<String, Object>>) out.get("variants");
+        variants.forEach((name, v) -> System.out.printf("%-16s %11d ms %8d ms %8d ms %14.1f%n",
+                name, (Long) v.get("medianReadyMs"), (Long) v.get("minReadyMs"), (Long) v.get("maxReadyMs"),
+                ((Number) v.get("medianRssMb")).doubleValue()));
+        System.out.println("Report written to " + report.toAbsolutePath());
+    }
+
+    private static void deleteRecursively(Path dir) throws IOException {
+        if (!Files.exists(dir)) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(dir)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static String required(String property) {
+        String value = System.getProperty(property);
+        if (value == null || value.isBlank()) {
+            throw new IllegalStateException("Missing -D" + property + "; run through ./gradlew startupBenchmark");
+        }
+        return value;
+    }
+}
@@ -0,0 +1,211 @@
+package co.medina.starter.practice.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+
+/**
+ * One simulated API consumer. Picks scenarios by weight and keeps its own state (registered accounts,
+ * bearer token, created user ids) so dependent calls such as confirm, login and update have valid input.
+ * Scenarios whose prerequisite is missing run the prerequisite instead.
+ */
+final class VirtualClient implements Runnable {
+
+    private static final String PASSWORD = "ChangeMe123!";
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+    private final int clientId;
+    private final String runId;
+    private final HttpClient http;
+    private final String baseUrl;
+    private final Scenario[] weighted;
+    private final long measureFromNanos;
+    private final long deadlineNanos;
+    private final Function<String, Optional<String>> verificationTokens;
+    private final ObjectMapper json;
+    private final LatencyRecorder recorder = new LatencyRecorder();
+
+    private final Deque<String> unconfirmed = new ArrayDeque<>();
+    private final List<String> confirmed = new ArrayList<>();
+    private final List<Long> userIds = new ArrayList<>();
+    private String bearer;
+    private long sequence;
+
+    VirtualClient(int clientId, String runId, HttpClient http, String baseUrl, Scenario[] weighted,
+                  long measureFromNanos, long deadlineNanos,
+                  Function<String, Optional<String>> verificationTokens, ObjectMapper json) {
+        this.clientId = clientId;
+        this.runId = runId;
+        this.http = http;
+        this.baseUrl = baseUrl;
+        this.weighted = weighted;
+        this.measureFromNanos = measureFromNanos;
+        this.deadlineNanos = deadlineNanos;
+        this.verificationTokens = verificationTokens;
+        this.json = json;
+    }
+
+    LatencyRecorder recorder() {
+        return recorder;
+    }
+
+    @Override
+    public void run() {
+        while (System.nanoTime() < deadlineNanos && !Thread.currentThread().isInterrupted()) {
+            Scenario scenario = weighted[ThreadLocalRandom.current().nextInt(weighted.length)];
+            try {
+                execute(scenario);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (IOException e) {
+                // already recorded as an error by send(); keep going
+            }
+        }
+    }
+
+    private void execute(Scenario scenario) throws IOException, InterruptedException {
+        switch (scenario) {
+            case REGISTER -> register();
+            case CONFIRM -> {
+                if (unconfirmed.isEmpty()) {
+                    register();
+                } else {
+                    confirm();
+                }
+            }
+            case LOGIN -> {
+                if (!confirmed.isEmpty()) {
+                    login();
+                } else if (!unconfirmed.isEmpty()) {
+                    confirm();
+                } else {
+                    register();
+                }
+            }
+            case CREATE -> create();
+            case GET -> withUser(id -> send("GET /v1/api/users/{id}", request("/v1/api/users/" + id).GET()));
+            case UPDATE -> withUser(id -> send("PUT /v1/api/users/{id}",
+                    request("/v1/api/users/" + id).PUT(body(userBody(nextEmail("upd"))))));
+            case DELETE -> withUser(id -> {
+                HttpResponse<String> response = send("DELETE /v1/api/users/{id}", request("/v1/api/users/" + id).DELETE());
+                if (response.statusCode() < 400) {
+                    userIds.remove(id);
+                }
+            });
+            case LIST -> send("GET /v1/api/users", request("/v1/api/users?page=0&size=20").GET());
+        }
+    }
+
+    private void register() throws IOException, InterruptedException {
+        String email = nextEmail("reg");
+        Map<String, String> body = Map.of("email", email, "password", PASSWORD, "name", "Load Test",
+                "mobileNumber", "3001234567", "address", "123 Main St");
+        HttpResponse<String> response = send("POST /v1/auth/register", request("/v1/auth/register").POST(body(body)));
+        if (response.statusCode() < 400) {
+            unconfirmed.add(email);
+        }
+    }
+
+    private void confirm() throws IOException, InterruptedException {
+        String email = unconfirmed.poll();
+        Optional<String> token = verificationTokens.apply(email);
+        if (token.isEmpty()) {
+            return;
+        }
+        String query = "?token=" + URLEncoder.encode(token.get(), StandardCharsets.UTF_8);
+        HttpResponse<String> response = send("GET /v1/auth/confirm", request("/v1/auth/confirm" + query).GET());
+        if (response.statusCode() < 400) {
+            confirmed.add(email);
+        }
+    }
+
+    private void login() throws IOException, InterruptedException {
+        String email = confirmed.get(ThreadLocalRandom.current().nextInt(confirmed.size()));
+        HttpResponse<String> response = send("POST /v1/auth/login",
+                request("/v1/auth/login").POST(body(Map.of("email", email, "password", PASSWORD))));
+        if (response.statusCode() < 400) {
+            bearer = json.readTree(response.body()).path("token").asText(null);
+        }
+    }
+
+    private void create() throws IOException, InterruptedException {
+        HttpResponse<String> response = send("POST /v1/api/users",
+                request("/v1/api/users").POST(body(userBody(nextEmail("usr")))));
+        if (response.statusCode() < 400) {
+            JsonNode id = json.readTree(response.body()).path("id");
+            if (id.canConvertToLong()) {
+                userIds.add(id.asLong());
+            }
+        }
+    }
+
+    private void withUser(UserCall call) throws IOException, InterruptedException {
+        if (userIds.isEmpty()) {
+            create();
+            return;
+        }
+        call.run(userIds.get(ThreadLocalRandom.current().nextInt(userIds.size())));
+    }
+
+    private HttpResponse<String> send(String route, HttpRequest.Builder builder) throws IOException, InterruptedException {
+        HttpRequest request = builder.build();
+        long start = System.nanoTime();
+        try {
+            HttpResponse<String> response = http.send(request, HttpResponse.BodyHandlers.ofString());
+            record(route, start, response.statusCode() >= 400);
+            return response;
+        } catch (IOException e) {
+            record(route, start, true);
+            throw e;
+        }
+    }
+
+    private void record(String route, long start, boolean error) {
+        if (start >= measureFromNanos) {
+            recorder.record(route, System.nanoTime() - start, error);
+        }
+    }
+
+    private HttpRequest.Builder request(String path) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(REQUEST_TIMEOUT)
+                .header("Content-Type", "application/json");
+        if (bearer != null) {
+            builder.header("Authorization", "Bearer " + bearer);
+        }
+        return builder;
+    }
+
+    private HttpRequest.BodyPublisher body(Object value) throws IOException {
+        return HttpRequest.BodyPublishers.ofByteArray(json.writeValueAsBytes(value));
+    }
+
+    private static Map<String, String> userBody(String email) {
+        return Map.of("email", email, "mobileNumber", "1234567890", "name", "John Doe", "address", "742 Evergreen Terrace");
+    }
+
+    private String nextEmail(String kind) {
+        return "lt-" + kind + "-" + runId + "-" + clientId + "-" + (sequence++) + "@example.com";
+    }
+
+    @FunctionalInterface
+    private interface UserCall {
+        void run(Long id) throws IOException, InterruptedException;
+    }
+}
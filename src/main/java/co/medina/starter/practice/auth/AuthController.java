@@ -2,11 +2,14 @@ package co.medina.starter.practice.auth;
 
 import co.medina.starter.practice.user.api.ApiError;
 import co.medina.starter.practice.user.domain.User;
+import co.medina.starter.practice.user.domain.UserChangedEvent;
 import co.medina.starter.practice.user.repo.UserRepository;
+import co.medina.starter.practice.user.service.EmailExistenceFilter;
 import io.vavr.control.Either;
 import io.vavr.control.Try;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -15,6 +18,7 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.support.TransactionOperations;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -30,17 +34,25 @@ public class AuthController {
     private final PasswordEncoder passwordEncoder;
     private final AuthenticationManager authenticationManager;
     private final co.medina.starter.practice.security.JwtUtil jwtUtil;
+    private final ApplicationEventPublisher eventPublisher;
 
     @org.springframework.beans.factory.annotation.Autowired(required = false)
     private EmailService emailService;
 
+    @org.springframework.beans.factory.annotation.Autowired(required = false)
+    private EmailExistenceFilter emailExistenceFilter;
+
+    // Boot's TransactionTemplate; user insert and outbox row commit together
+    @org.springframework.beans.factory.annotation.Autowired(required = false)
+    private TransactionOperations transactionOperations = TransactionOperations.withoutTransaction();
+
     @org.springframework.beans.factory.annotation.Value("${app.base-url:http://localhost:8080}")
     private String baseUrl;
 
     @PostMapping("/check-email")
     public Either<ApiError, java.util.Map<String, Object>> checkEmail(@Valid @RequestBody LoginRequest request) {
         // Reuse LoginRequest to carry email for simplicity
-        boolean exists = userRepository.existsByEmail(request.email());
+        boolean exists = emailExists(request.email());
         return Either.right(java.util.Map.of("exists", exists));
     }
 
@@ -48,27 +60,33 @@ public class AuthController {
     @ResponseStatus(HttpStatus.CREATED)
     public Either<ApiError, Void> register(@Valid @RequestBody RegisterRequest request) {
         return Try.run(() -> {
-                    if (userRepository.existsByEmail(request.email())) {
+                    if (emailExists(request.email())) {
                         throw new DataIntegrityViolationException("Email already exists");
                     }
-                    String token = java.util.UUID.randomUUID().toString().replaceAll("-", "");
-                    String expiresAt = java.time.Instant.now().plus(java.time.Duration.ofHours(24)).toString();
-                    User user = User.builder()
-                            .email(request.email())
-                            .name(request.name())
-                            .mobileNumber(request.mobileNumber())
-                            .address(request.address())
-                            .password(passwordEncoder.encode(request.password()))
-                            .emailVerified(false)
-                            .verificationToken(token)
-                            .verificationExpiresAt(expiresAt)
-                            .build();
-                    userRepository.save(user);
+                    // hash before opening the transaction so no connection is held while waiting for a hashing thread;
+                    // the unique index still rejects a concurrent registration of the same email
+                    String passwordHash = passwordEncoder.encode(request.password());
+                    transactionOperations.executeWithoutResult(status -> {
+                        String token = VerificationTokens.generate();
+                        java.time.Instant expiresAt = java.time.Instant.now().plus(VerificationTokens.TTL);
+                        User user = User.builder()
+                                .email(request.email())
+                                .name(request.name())
+                                .mobileNumber(request.mobileNumber())
+                                .address(request.address())
+                                .password(passwordHash)
+                                .emailVerified(false)
+                                .verificationToken(token)
+                                .verificationExpiresAt(expiresAt)
+                                .build();
+                        userRepository.save(user);
+                        eventPublisher.publishEvent(UserChangedEvent.of(user));
 
-                    String link = String.format("%s/v1/auth/confirm?token=%s", baseUrl, token);
-                    if (emailService != null) {
-                        emailService.sendVerificationEmail(request.email(), link);
-                    }
+                        String link = VerificationTokens.link(baseUrl, token);
+                        if (emailService != null) {
+                            emailService.sendVerificationEmail(request.email(), link);
+                        }
+                    });
                 })
                 .toEither()
                 .mapLeft(this::mapToApiError)
@@ -81,11 +99,8 @@ public class AuthController {
                     Authentication auth = authenticationManager.authenticate(
                             new UsernamePasswordAuthenticationToken(request.email(), request.password())
                     );
-                    // Check email verified if available
-                    java.util.Optional<co.medina.starter.practice.user.domain.User> opt = userRepository.findByEmail(request.email());
-                    if (opt.isPresent() && !opt.get().isEmailVerified()) {
-                        throw new org.springframework.security.authentication.BadCredentialsException("Email not verified");
-                    }
+                    // unverified accounts are rejected inside authenticate() via AppUserDetails.isEnabled(),
+                    // after the password check (LoginAuthenticationProvider)
                     UserDetails userDetails = (UserDetails) auth.getPrincipal();
                     String token = jwtUtil.generateToken(userDetails);
                     return new AuthResponse(token, "Bearer");
@@ -100,7 +115,7 @@ public class AuthController {
                 .<Either<ApiError, java.util.Map<String, Object>>>map(user -> {
                     try {
                         java.time.Instant now = java.time.Instant.now();
-                        java.time.Instant exp = java.time.Instant.parse(user.getVerificationExpiresAt());
+                        java.time.Instant exp = user.getVerificationExpiresAt();
                         if (now.isAfter(exp)) {
                             return Either.left(new ApiError(HttpStatus.BAD_REQUEST, "Token expired"));
                         }
@@ -108,6 +123,7 @@ public class AuthController {
                         user.setVerificationToken(null);
                         user.setVerificationExpiresAt(null);
                         userRepository.save(user);
+                        eventPublisher.publishEvent(UserChangedEvent.of(user));
                         return Either.right(java.util.Map.of("status", "confirmed"));
                     } catch (Exception e) {
                         return Either.left(new ApiError(HttpStatus.BAD_REQUEST, "Invalid token"));
@@ -116,6 +132,13 @@ public class AuthController {
                 .orElseGet(() -> Either.left(new ApiError(HttpStatus.BAD_REQUEST, "Invalid token")));
     }
 
+    private boolean emailExists(String email) {
+        if (emailExistenceFilter == null) {
+            return userRepository.existsByEmail(email);
+        }
+        return emailExistenceFilter.exists(email, userRepository::existsByEmail);
+    }
+
     private ApiError mapToApiError(Throwable throwable) {
         if (throwable instanceof DataIntegrityViolationException) {
             return new ApiError(HttpStatus.CONFLICT, throwable.getMessage());
@@ -126,6 +149,9 @@ public class AuthController {
         if (throwable instanceof IllegalArgumentException) {
             return new ApiError(HttpStatus.BAD_REQUEST, throwable.getMessage());
         }
+        if (throwable instanceof co.medina.starter.practice.security.PasswordHashingRejectedException) {
+            return new ApiError(HttpStatus.SERVICE_UNAVAILABLE, throwable.getMessage());
+        }
         return new ApiError(HttpStatus.INTERNAL_SERVER_ERROR, "An unexpected error occurred");
     }
 }
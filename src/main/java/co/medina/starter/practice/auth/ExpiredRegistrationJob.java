@@ -0,0 +1,119 @@
+package co.medina.starter.practice.auth;
+
+import co.medina.starter.practice.user.domain.ExpiredRegistration;
+import co.medina.starter.practice.user.domain.User;
+import co.medina.starter.practice.user.domain.UserChangedEvent;
+import co.medina.starter.practice.user.repo.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Periodically handles registrations whose verification window has passed, either deleting them ({@code purge})
+ * or issuing a fresh token and queueing a new confirmation email ({@code renotify}).
+ * <p>
+ * Expired rows are walked through the {@code (verification_expires_at, id)} index with a keyset cursor on that pair,
+ * so each chunk is read straight off the index instead of re-sorting the whole expired set. Each chunk of
+ * {@code chunk-size} rows is handled in its own short transaction, so row locks are never held for the whole sweep.
+ */
+@Component
+@ConditionalOnProperty(prefix = "app.registration.cleanup", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class ExpiredRegistrationJob {
+
+    private static final Logger log = LoggerFactory.getLogger(ExpiredRegistrationJob.class);
+
+    public enum Action { PURGE, RENOTIFY }
+
+    private final UserRepository userRepository;
+    private final TransactionOperations transactionOperations;
+    private final ApplicationEventPublisher eventPublisher;
+    private final EmailService emailService; // may be null if mail is not wired
+    private final String baseUrl;
+    private final Action action;
+    private final int chunkSize;
+
+    public ExpiredRegistrationJob(UserRepository userRepository,
+                                  TransactionOperations transactionOperations,
+                                  ApplicationEventPublisher eventPublisher,
+                                  @Autowired(required = false) EmailService emailService,
+                                  @Value("${app.base-url:http://localhost:8080}") String baseUrl,
+                                  @Value("${app.registration.cleanup.action:purge}") Action action,
+                                  @Value("${app.registration.cleanup.chunk-size:500}") int chunkSize) {
+        this.userRepository = userRepository;
+        this.transactionOperations = transactionOperations;
+        this.eventPublisher = eventPublisher;
+        this.emailService = emailService;
+        this.baseUrl = baseUrl;
+        this.action = action;
+        this.chunkSize = chunkSize;
+    }
+
+    @Scheduled(initialDelayString = "${app.registration.cleanup.initial-delay:1m}",
+            fixedDelayString = "${app.registration.cleanup.interval:1h}")
+    public void run() {
+        int handled = processExpired(Instant.now());
+        if (handled > 0) {
+            log.info("Expired registrations handled: {} ({})", handled, action);
+        }
+    }
+
+    /**
+     * Handles every registration that expired before {@code now}; returns how many rows were purged or renotified.
+     */
+    int processExpired(Instant now) {
+        int handled = 0;
+        // expiries are always set to a registration time plus the token TTL, so they sort after the epoch
+        Instant afterExpiresAt = Instant.EPOCH;
+        long afterId = 0;
+        while (true) {
+            List<ExpiredRegistration> expired =
+                    userRepository.findExpiredUnverified(now, afterExpiresAt, afterId, PageRequest.of(0, chunkSize));
+            if (expired.isEmpty()) {
+                return handled;
+            }
+            List<Long> ids = expired.stream().map(ExpiredRegistration::id).toList();
+            Integer chunk = transactionOperations.execute(status -> action == Action.PURGE ? purge(ids) : renotify(ids, now));
+            handled += chunk == null ? 0 : chunk;
+            if (ids.size() < chunkSize) {
+                return handled;
+            }
+            afterExpiresAt = expired.getLast().verificationExpiresAt();
+            afterId = expired.getLast().id();
+        }
+    }
+
+    private int purge(List<Long> ids) {
+        int deleted = userRepository.deleteUnverifiedByIdIn(ids);
+        ids.forEach(id -> eventPublisher.publishEvent(UserChangedEvent.deleted(id)));
+        return deleted;
+    }
+
+    private int renotify(List<Long> ids, Instant now) {
+        int renewed = 0;
+        for (User user : userRepository.findAllById(ids)) {
+            // skip rows confirmed since the id scan
+            if (user.isEmailVerified() || user.getVerificationExpiresAt() == null || !user.getVerificationExpiresAt().isBefore(now)) {
+                continue;
+            }
+            String token = VerificationTokens.generate();
+            user.setVerificationToken(token);
+            user.setVerificationExpiresAt(now.plus(VerificationTokens.TTL));
+            eventPublisher.publishEvent(UserChangedEvent.of(user));
+            if (emailService != null) {
+                emailService.sendVerificationEmail(user.getEmail(), VerificationTokens.link(baseUrl, token));
+            }
+            renewed++;
+        }
+        return renewed;
+    }
+}
@@ -0,0 +1,23 @@
+package co.medina.starter.practice.auth;
+
+import java.time.Duration;
+import java.util.UUID;
+
+/**
+ * Email-confirmation tokens shared by registration and the expired-registration job.
+ */
+final class VerificationTokens {
+
+    static final Duration TTL = Duration.ofHours(24);
+
+    private VerificationTokens() {
+    }
+
+    static String generate() {
+        return UUID.randomUUID().toString().replace("-", "");
+    }
+
+    static String link(String baseUrl, String token) {
+        return String.format("%s/v1/auth/confirm?token=%s", baseUrl, token);
+    }
+}
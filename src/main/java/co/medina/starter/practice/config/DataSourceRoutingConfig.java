@@ -0,0 +1,55 @@
+package co.medina.starter.practice.config;
+
+import co.medina.starter.practice.datasource.ReadWriteRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Active once {@code app.datasource.replica.jdbc-url} is set: the primary pool keeps Boot's {@code spring.datasource.*}
+ * settings, a second Hikari pool is bound from {@code app.datasource.replica.*}, and the {@code dataSource} that JPA
+ * uses routes between them by transaction read-only flag.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "app.datasource.replica", name = "jdbc-url")
+public class DataSourceRoutingConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    @ConfigurationProperties("app.datasource.replica")
+    public HikariDataSource replicaDataSource() {
+        HikariDataSource replica = new HikariDataSource();
+        replica.setPoolName("replica");
+        replica.setReadOnly(true);
+        return replica;
+    }
+
+    @Bean
+    public ReadWriteRoutingDataSource routingDataSource(@Qualifier("primaryDataSource") DataSource primary,
+                                                        @Qualifier("replicaDataSource") DataSource replica,
+                                                        @Value("${app.datasource.routing.pin-after-write:5s}") Duration pinAfterWrite,
+                                                        @Value("${app.datasource.routing.max-pinned-clients:100000}") long maxPinnedClients) {
+        return new ReadWriteRoutingDataSource(primary, replica, pinAfterWrite, maxPinnedClients);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ReadWriteRoutingDataSource routingDataSource) {
+        return new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+}
@@ -0,0 +1,44 @@
+package co.medina.starter.practice.config;
+
+import co.medina.starter.practice.web.IdempotencyFilter;
+import co.medina.starter.practice.web.IdempotencyProperties;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Registers {@link IdempotencyFilter} as a servlet filter ordered after the Spring Security chain, so stored
+ * responses are scoped to the authenticated user, and its anonymous replay ahead of the rate limiter, so retries
+ * that only get a stored response back do not spend rate-limit tokens.
+ */
+@Configuration
+@EnableConfigurationProperties(IdempotencyProperties.class)
+@ConditionalOnProperty(prefix = "app.idempotency", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class IdempotencyConfig {
+
+    @Bean
+    public IdempotencyFilter idempotencyFilter(IdempotencyProperties properties) {
+        return new IdempotencyFilter(properties);
+    }
+
+    @Bean
+    public FilterRegistrationBean<IdempotencyFilter> idempotencyFilterRegistration(IdempotencyFilter idempotencyFilter) {
+        FilterRegistrationBean<IdempotencyFilter> registration = new FilterRegistrationBean<>(idempotencyFilter);
+        registration.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER + 10);
+        return registration;
+    }
+
+    @Bean
+    public FilterRegistrationBean<OncePerRequestFilter> idempotencyReplayFilterRegistration(IdempotencyFilter idempotencyFilter) {
+        FilterRegistrationBean<OncePerRequestFilter> registration =
+                new FilterRegistrationBean<>(idempotencyFilter.anonymousReplayFilter());
+        registration.setName("idempotencyReplayFilter");
+        // ahead of RateLimitFilter (DEFAULT_FILTER_ORDER - 10)
+        registration.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER - 20);
+        return registration;
+    }
+}
@@ -0,0 +1,29 @@
+package co.medina.starter.practice.config;
+
+import co.medina.starter.practice.user.api.UserJsonHttpMessageConverter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+
+/**
+ * JSON output. Replaces Boot's Jackson converter with one that keeps pre-built writers for user responses and, with
+ * {@code app.json.blackbird.enabled=true}, registers Blackbird so bean properties are read through generated
+ * lambdas instead of reflection. Boot adds every {@code Module} bean to the shared {@link ObjectMapper}.
+ */
+@Configuration
+public class JsonConfig {
+
+    @Bean
+    public MappingJackson2HttpMessageConverter mappingJackson2HttpMessageConverter(ObjectMapper objectMapper) {
+        return new UserJsonHttpMessageConverter(objectMapper);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "app.json.blackbird.enabled", havingValue = "true")
+    public BlackbirdModule blackbirdModule() {
+        return new BlackbirdModule();
+    }
+}
@@ -0,0 +1,13 @@
+package co.medina.starter.practice.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enables {@code @Scheduled} maintenance jobs. With {@code spring.threads.virtual.enabled=true} Boot's scheduler
+ * runs them on virtual threads.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
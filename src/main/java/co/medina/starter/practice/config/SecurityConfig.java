@@ -1,6 +1,10 @@
 package co.medina.starter.practice.config;
 
+import co.medina.starter.practice.security.BoundedPasswordEncoder;
+import co.medina.starter.practice.security.CustomUserDetailsService;
 import co.medina.starter.practice.security.JwtAuthenticationFilter;
+import co.medina.starter.practice.security.LoginAuthenticationProvider;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -11,7 +15,6 @@ import org.springframework.security.config.annotation.web.configurers.AbstractHt
 import org.springframework.security.config.annotation.web.configurers.HeadersConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
@@ -26,8 +29,17 @@ public class SecurityConfig {
     }
 
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public BoundedPasswordEncoder passwordEncoder(@Value("${app.security.hashing.threads:0}") int threads,
+                                                  @Value("${app.security.hashing.queue-capacity:64}") int queueCapacity) {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        return new BoundedPasswordEncoder(new BCryptPasswordEncoder(), poolSize, queueCapacity);
+    }
+
+    // the only AuthenticationProvider bean, so the authentication manager uses it instead of building its own
+    @Bean
+    public LoginAuthenticationProvider loginAuthenticationProvider(CustomUserDetailsService userDetailsService,
+                                                                   BoundedPasswordEncoder passwordEncoder) {
+        return new LoginAuthenticationProvider(userDetailsService, passwordEncoder);
     }
 
     @Bean
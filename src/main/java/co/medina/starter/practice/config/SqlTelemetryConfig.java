@@ -0,0 +1,65 @@
+package co.medina.starter.practice.config;
+
+import co.medina.starter.practice.observability.SqlTelemetry;
+import co.medina.starter.practice.observability.SqlTelemetryFilter;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.lang.NonNull;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Wraps the application {@link DataSource} in a datasource-proxy that reports every statement to
+ * {@link SqlTelemetry}, and registers the filter that totals statements per request. Replaces
+ * {@code spring.jpa.show-sql}, which printed every statement synchronously to stdout.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "app.sql.telemetry", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class SqlTelemetryConfig {
+
+    @Bean
+    public SqlTelemetry sqlTelemetry(@Value("${app.sql.telemetry.slow-threshold:200ms}") Duration slowThreshold,
+                                     @Value("${app.sql.telemetry.sample-rate:0.001}") double sampleRate,
+                                     @Value("${app.sql.telemetry.log-queue-capacity:1024}") int logQueueCapacity) {
+        return new SqlTelemetry(slowThreshold, sampleRate, logQueueCapacity);
+    }
+
+    // static so the post-processor does not force early initialization of this configuration; only the data source
+    // JPA uses is wrapped, so pools behind a routing data source are not counted twice
+    @Bean
+    public static BeanPostProcessor sqlTelemetryDataSourcePostProcessor(ObjectProvider<SqlTelemetry> telemetry) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(@NonNull Object bean, @NonNull String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof ProxyDataSource) && "dataSource".equals(beanName)) {
+                    return ProxyDataSourceBuilder.create(beanName, dataSource)
+                            .listener(telemetry.getObject())
+                            .build();
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    public SqlTelemetryFilter sqlTelemetryFilter(SqlTelemetry telemetry) {
+        return new SqlTelemetryFilter(telemetry);
+    }
+
+    @Bean
+    public FilterRegistrationBean<SqlTelemetryFilter> sqlTelemetryFilterRegistration(SqlTelemetryFilter filter) {
+        FilterRegistrationBean<SqlTelemetryFilter> registration = new FilterRegistrationBean<>(filter);
+        // outermost, so statements issued by the security chain are counted too
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+}
@@ -0,0 +1,31 @@
+package co.medina.starter.practice.datasource;
+
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+/**
+ * Identifies the API client on whose behalf the current thread runs: the authenticated username, else the remote
+ * address of the current request, else nobody (background work). Used to pin a client's reads to the primary
+ * right after its own writes.
+ */
+public final class ClientContext {
+
+    private ClientContext() {
+    }
+
+    public static String current() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.isAuthenticated() && !(authentication instanceof AnonymousAuthenticationToken)) {
+            return "user:" + authentication.getName();
+        }
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes instanceof ServletRequestAttributes servlet) {
+            return "ip:" + servlet.getRequest().getRemoteAddr();
+        }
+        return null;
+    }
+}
@@ -0,0 +1,129 @@
+package co.medina.starter.practice.datasource;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.lang.NonNull;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Sends connections for read-only transactions to the replica pool and everything else to the primary.
+ * <p>
+ * The decision reads the transaction's read-only flag, which Spring sets only after the transaction manager has
+ * asked for a connection, so this must sit behind a {@link LazyConnectionDataSourceProxy}: the physical connection
+ * is then fetched on the first statement, once the flag is known.
+ * <p>
+ * Replicas lag. When a client commits a write it is pinned to the primary for {@code pinAfterWrite}, so its own
+ * next reads see the write; other clients keep reading from the replica.
+ * <p>
+ * Work run through {@link #onPrimary(Executor)} always reads the primary. The event-invalidated caches load that way,
+ * through {@link #virtualLoader(String)}.
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource implements MeterBinder {
+
+    public enum Route { PRIMARY, REPLICA }
+
+    private static final ThreadLocal<Boolean> FORCE_PRIMARY = new ThreadLocal<>();
+
+    private final Cache<String, Boolean> pinnedClients; // null when pinning is disabled
+    private final LongAdder writes = new LongAdder();
+    private final LongAdder replicaReads = new LongAdder();
+    private final LongAdder pinnedReads = new LongAdder();
+
+    public ReadWriteRoutingDataSource(DataSource primary, DataSource replica, Duration pinAfterWrite, long maxPinnedClients) {
+        this(primary, replica, pinAfterWrite, maxPinnedClients, Ticker.systemTicker());
+    }
+
+    ReadWriteRoutingDataSource(DataSource primary, DataSource replica, Duration pinAfterWrite, long maxPinnedClients,
+                               Ticker ticker) {
+        setTargetDataSources(Map.of(Route.PRIMARY, primary, Route.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+        this.pinnedClients = pinAfterWrite.isZero() ? null : Caffeine.newBuilder()
+                .expireAfterWrite(pinAfterWrite)
+                .maximumSize(maxPinnedClients)
+                .ticker(ticker)
+                .build();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            writes.increment();
+            pinAfterCommit();
+            return Route.PRIMARY;
+        }
+        if (FORCE_PRIMARY.get() != null) {
+            pinnedReads.increment();
+            return Route.PRIMARY;
+        }
+        String client = pinnedClients == null ? null : ClientContext.current();
+        if (client != null && pinnedClients.getIfPresent(client) != null) {
+            pinnedReads.increment();
+            return Route.PRIMARY;
+        }
+        replicaReads.increment();
+        return Route.REPLICA;
+    }
+
+    /**
+     * Wraps an executor so everything its tasks read comes from the primary. A no-op without a replica configured.
+     */
+    public static Executor onPrimary(Executor delegate) {
+        return task -> delegate.execute(() -> {
+            FORCE_PRIMARY.set(Boolean.TRUE);
+            try {
+                task.run();
+            } finally {
+                FORCE_PRIMARY.remove();
+            }
+        });
+    }
+
+    /**
+     * An executor that runs each task on a new named virtual thread reading the primary, for caches invalidated on
+     * write: a load that read a lagging replica right after the invalidating write could put the pre-write row back
+     * for a whole TTL.
+     */
+    public static Executor virtualLoader(String threadName) {
+        return onPrimary(task -> Thread.ofVirtual().name(threadName).start(task));
+    }
+
+    private void pinAfterCommit() {
+        if (pinnedClients == null || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        String client = ClientContext.current();
+        if (client != null) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    pinnedClients.put(client, Boolean.TRUE);
+                }
+            });
+        }
+    }
+
+    @Override
+    public void bindTo(@NonNull MeterRegistry registry) {
+        FunctionCounter.builder("db.routing.connections", writes, LongAdder::sum)
+                .description("Connections handed out, by target and reason")
+                .tags("route", "primary", "reason", "write").register(registry);
+        FunctionCounter.builder("db.routing.connections", pinnedReads, LongAdder::sum)
+                .tags("route", "primary", "reason", "pinned").register(registry);
+        FunctionCounter.builder("db.routing.connections", replicaReads, LongAdder::sum)
+                .tags("route", "replica", "reason", "read").register(registry);
+    }
+}
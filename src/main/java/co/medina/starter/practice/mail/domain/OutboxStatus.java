@@ -0,0 +1,9 @@
+package co.medina.starter.practice.mail.domain;
+
+public enum OutboxStatus {
+    PENDING,
+    /** Claimed by a dispatcher that is sending it; see {@code OutboxEmail#claimedBy}. */
+    SENDING,
+    SENT,
+    FAILED
+}
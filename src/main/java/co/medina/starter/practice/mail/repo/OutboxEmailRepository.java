@@ -0,0 +1,69 @@
+package co.medina.starter.practice.mail.repo;
+
+import co.medina.starter.practice.mail.domain.OutboxEmail;
+import co.medina.starter.practice.mail.domain.OutboxStatus;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+public interface OutboxEmailRepository extends JpaRepository<OutboxEmail, Long> {
+
+    String CLAIMABLE = "(e.status = co.medina.starter.practice.mail.domain.OutboxStatus.PENDING and e.nextAttemptAt <= :now)"
+            + " or (e.status = co.medina.starter.practice.mail.domain.OutboxStatus.SENDING and e.claimedAt <= :staleBefore)";
+    String CLAIMED_BY = "e.claimedBy = :claimedBy and e.status = co.medina.starter.practice.mail.domain.OutboxStatus.SENDING";
+
+    /** Due rows, and rows whose claim is older than {@code staleBefore} because their dispatcher died mid-batch. */
+    @Query("select e.id from OutboxEmail e where " + CLAIMABLE + " order by e.id")
+    List<Long> findClaimableIds(@Param("now") Instant now, @Param("staleBefore") Instant staleBefore, Pageable pageable);
+
+    /**
+     * Moves the given rows to {@code SENDING} under {@code claimedBy}, skipping any that another dispatcher claimed
+     * since they were selected.
+     *
+     * @return number of rows claimed
+     */
+    @Modifying
+    @Transactional
+    @Query("update OutboxEmail e set e.status = co.medina.starter.practice.mail.domain.OutboxStatus.SENDING,"
+            + " e.claimedBy = :claimedBy, e.claimedAt = :now where e.id in :ids and (" + CLAIMABLE + ")")
+    int claim(@Param("ids") Collection<Long> ids, @Param("claimedBy") String claimedBy,
+              @Param("now") Instant now, @Param("staleBefore") Instant staleBefore);
+
+    List<OutboxEmail> findByClaimedByOrderByIdAsc(String claimedBy);
+
+    long countByStatus(OutboxStatus status);
+
+    /**
+     * Records the outcome of a sent batch. Rows whose claim another dispatcher took over in the meantime are left
+     * alone, so they end up with that dispatcher's outcome.
+     *
+     * @return number of rows updated
+     */
+    @Modifying
+    @Transactional
+    @Query("update OutboxEmail e set e.status = :status, e.sentAt = :sentAt, e.attempts = e.attempts + 1"
+            + " where e.id in :ids and " + CLAIMED_BY)
+    int markSent(@Param("ids") Collection<Long> ids, @Param("claimedBy") String claimedBy,
+                 @Param("status") OutboxStatus status, @Param("sentAt") Instant sentAt);
+
+    /**
+     * Releases a row that failed to send, back to {@code PENDING} with its next attempt, or to {@code FAILED}.
+     * Guarded by the claim like {@link #markSent}.
+     *
+     * @return 1 if the row was still claimed by {@code claimedBy}, else 0
+     */
+    @Modifying
+    @Transactional
+    @Query("update OutboxEmail e set e.status = :status, e.attempts = :attempts, e.nextAttemptAt = :nextAttemptAt,"
+            + " e.lastError = :lastError, e.claimedBy = null, e.claimedAt = null where e.id = :id and " + CLAIMED_BY)
+    int reschedule(@Param("id") Long id, @Param("claimedBy") String claimedBy, @Param("status") OutboxStatus status,
+                   @Param("attempts") int attempts, @Param("nextAttemptAt") Instant nextAttemptAt,
+                   @Param("lastError") String lastError);
+}
@@ -0,0 +1,71 @@
+package co.medina.starter.practice.mail.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Stops the outbox dispatcher from hammering a failing or slow SMTP server. Consecutive failed batches, and
+ * batches slower than the slow-call threshold, open the breaker; after the open duration one trial batch is
+ * let through (half-open) and its outcome closes or re-opens the breaker.
+ * <p>
+ * Only the single dispatcher thread mutates the state; the fields are volatile so metrics and logs can read it.
+ */
+@Component
+public class MailCircuitBreaker {
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final int failureThreshold;
+    private final Duration openDuration;
+    private final Duration slowCallThreshold;
+    private final Clock clock;
+
+    private volatile State state = State.CLOSED;
+    private volatile int consecutiveFailures;
+    private volatile Instant openedAt = Instant.EPOCH;
+
+    public MailCircuitBreaker(@Value("${app.mail.circuit-breaker.failure-threshold:5}") int failureThreshold,
+                              @Value("${app.mail.circuit-breaker.open-duration:60s}") Duration openDuration,
+                              @Value("${app.mail.circuit-breaker.slow-call-threshold:5s}") Duration slowCallThreshold) {
+        this(failureThreshold, openDuration, slowCallThreshold, Clock.systemUTC());
+    }
+
+    MailCircuitBreaker(int failureThreshold, Duration openDuration, Duration slowCallThreshold, Clock clock) {
+        this.failureThreshold = failureThreshold;
+        this.openDuration = openDuration;
+        this.slowCallThreshold = slowCallThreshold;
+        this.clock = clock;
+    }
+
+    public boolean allowRequest() {
+        if (state == State.OPEN && !clock.instant().isBefore(openedAt.plus(openDuration))) {
+            state = State.HALF_OPEN;
+        }
+        return state != State.OPEN;
+    }
+
+    public void recordSuccess(Duration elapsed) {
+        if (elapsed.compareTo(slowCallThreshold) > 0) {
+            recordFailure();
+            return;
+        }
+        consecutiveFailures = 0;
+        state = State.CLOSED;
+    }
+
+    public void recordFailure() {
+        consecutiveFailures++;
+        if (state == State.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+            state = State.OPEN;
+            openedAt = clock.instant();
+        }
+    }
+
+    public State getState() {
+        return state;
+    }
+}
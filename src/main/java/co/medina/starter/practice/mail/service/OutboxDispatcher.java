@@ -0,0 +1,274 @@
+package co.medina.starter.practice.mail.service;
+
+import co.medina.starter.practice.mail.domain.OutboxEmail;
+import co.medina.starter.practice.mail.domain.OutboxStatus;
+import co.medina.starter.practice.mail.repo.OutboxEmailRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Drains the email outbox in the background. Each poll takes up to {@code batch-size} due rows and hands them to
+ * {@link JavaMailSender#send(SimpleMailMessage...)}, which delivers the whole batch over one SMTP connection.
+ * Failed rows are retried with exponential backoff until {@code max-attempts}, then marked {@link OutboxStatus#FAILED}.
+ * <p>
+ * Several instances can poll the same outbox. A batch is first claimed with a status-guarded update that moves its
+ * rows to {@link OutboxStatus#SENDING} under a fresh claim id, and only the rows that update won are sent. Rows left
+ * in {@code SENDING} by a dispatcher that died mid-batch are claimed again once {@code claim-timeout} has passed.
+ * Outcomes are written back only while the claim is still this batch's, so a dispatcher that was too slow cannot
+ * overwrite the outcome of the one that took its rows over.
+ * <p>
+ * Runs on its own platform thread: Jakarta Mail holds monitors across socket I/O, which would pin a virtual thread.
+ * The lifecycle phase is below the web server's, so on shutdown requests stop first and the outbox is then
+ * drained for up to {@code drain-timeout} before the data source goes away.
+ */
+@Component
+public class OutboxDispatcher implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(OutboxDispatcher.class);
+
+    // Web server start/stop runs at DEFAULT_PHASE - 2048; lower phases start earlier and stop later
+    static final int PHASE = SmartLifecycle.DEFAULT_PHASE - 4096;
+
+    private final OutboxEmailRepository repository;
+    private final JavaMailSender mailSender; // may be null in tests or if mail not configured
+    private final MailCircuitBreaker circuitBreaker;
+    private final String fromAddress;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final Duration initialBackoff;
+    private final Duration maxBackoff;
+    private final Duration pollInterval;
+    private final Duration drainTimeout;
+    private final Duration claimTimeout;
+
+    private ScheduledExecutorService scheduler;
+    private ScheduledFuture<?> polling;
+    private volatile boolean running;
+
+    public OutboxDispatcher(OutboxEmailRepository repository,
+                            @Autowired(required = false) JavaMailSender mailSender,
+                            MailCircuitBreaker circuitBreaker,
+                            @Value("${spring.mail.username:}") String fromAddress,
+                            @Value("${app.mail.outbox.batch-size:50}") int batchSize,
+                            @Value("${app.mail.outbox.max-attempts:8}") int maxAttempts,
+                            @Value("${app.mail.outbox.initial-backoff:5s}") Duration initialBackoff,
+                            @Value("${app.mail.outbox.max-backoff:15m}") Duration maxBackoff,
+                            @Value("${app.mail.outbox.poll-interval:2s}") Duration pollInterval,
+                            @Value("${app.mail.outbox.drain-timeout:20s}") Duration drainTimeout,
+                            @Value("${app.mail.outbox.claim-timeout:5m}") Duration claimTimeout) {
+        this.repository = repository;
+        this.mailSender = mailSender;
+        this.circuitBreaker = circuitBreaker;
+        this.fromAddress = fromAddress;
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.initialBackoff = initialBackoff;
+        this.maxBackoff = maxBackoff;
+        this.pollInterval = pollInterval;
+        this.drainTimeout = drainTimeout;
+        this.claimTimeout = claimTimeout;
+    }
+
+    @Override
+    public void start() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().name("mail-outbox").daemon(true).factory());
+        polling = scheduler.scheduleWithFixedDelay(this::poll, pollInterval.toMillis(), pollInterval.toMillis(), TimeUnit.MILLISECONDS);
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        polling.cancel(false);
+        // Drain on the dispatcher thread so a batch that is already in flight finishes first
+        scheduler.execute(this::drain);
+        scheduler.shutdown();
+        try {
+            if (!scheduler.awaitTermination(drainTimeout.toMillis() + 1000, TimeUnit.MILLISECONDS)) {
+                log.warn("[Outbox] Shutdown drain did not finish within {}", drainTimeout);
+                scheduler.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            scheduler.shutdownNow();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return PHASE;
+    }
+
+    private void poll() {
+        try {
+            // keep going while full batches come back so a backlog clears faster than one batch per interval
+            int dispatched;
+            do {
+                dispatched = dispatchBatch();
+            } while (running && dispatched == batchSize);
+        } catch (RuntimeException e) {
+            log.warn("[Outbox] Dispatch failed: {}", e.getMessage());
+        }
+    }
+
+    private void drain() {
+        long deadline = System.nanoTime() + drainTimeout.toNanos();
+        try {
+            int dispatched;
+            do {
+                dispatched = dispatchBatch();
+            } while (dispatched > 0 && System.nanoTime() < deadline);
+            long pending = repository.countByStatus(OutboxStatus.PENDING);
+            if (pending > 0) {
+                log.info("[Outbox] {} email(s) still pending at shutdown; they are sent on next start", pending);
+            }
+        } catch (RuntimeException e) {
+            log.warn("[Outbox] Shutdown drain failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Sends one batch of due emails.
+     *
+     * @return number of outbox rows attempted; 0 when nothing is due, other dispatchers claimed it first or the
+     * circuit breaker is open
+     */
+    int dispatchBatch() {
+        if (!circuitBreaker.allowRequest()) {
+            return 0;
+        }
+        Instant now = Instant.now();
+        Instant staleBefore = now.minus(claimTimeout);
+        List<Long> due = repository.findClaimableIds(now, staleBefore, PageRequest.ofSize(batchSize));
+        if (due.isEmpty()) {
+            return 0;
+        }
+        String claim = UUID.randomUUID().toString();
+        if (repository.claim(due, claim, now, staleBefore) == 0) {
+            return 0;
+        }
+        List<OutboxEmail> batch = repository.findByClaimedByOrderByIdAsc(claim);
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        Map<OutboxEmail, Exception> failures = send(batch);
+
+        List<Long> sentIds = new ArrayList<>(batch.size());
+        int written = 0;
+        for (OutboxEmail email : batch) {
+            Exception failure = failures.get(email);
+            if (failure == null) {
+                sentIds.add(email.getId());
+            } else {
+                scheduleRetry(email, failure, now);
+                written += repository.reschedule(email.getId(), claim, email.getStatus(), email.getAttempts(),
+                        email.getNextAttemptAt(), email.getLastError());
+            }
+        }
+        if (!sentIds.isEmpty()) {
+            written += repository.markSent(sentIds, claim, OutboxStatus.SENT, Instant.now());
+        }
+        if (written < batch.size()) {
+            log.warn("[Outbox] {} of {} email(s) were taken over by another dispatcher before this batch finished",
+                    batch.size() - written, batch.size());
+        }
+        return batch.size();
+    }
+
+    private Map<OutboxEmail, Exception> send(List<OutboxEmail> batch) {
+        Map<OutboxEmail, Exception> failures = new IdentityHashMap<>();
+        if (mailSender == null || fromAddress == null || fromAddress.isBlank()) {
+            // Fallback to logging if mail sender not available or from not configured
+            batch.forEach(email -> log.info("[Outbox] Email (no-op) to={} subject={} body={}",
+                    email.getRecipient(), email.getSubject(), email.getBody()));
+            return failures;
+        }
+
+        Map<SimpleMailMessage, OutboxEmail> messages = new IdentityHashMap<>();
+        for (OutboxEmail email : batch) {
+            messages.put(toMessage(email), email);
+        }
+        long start = System.nanoTime();
+        try {
+            mailSender.send(messages.keySet().toArray(SimpleMailMessage[]::new));
+            circuitBreaker.recordSuccess(Duration.ofNanos(System.nanoTime() - start));
+            log.info("[Outbox] Sent {} email(s)", batch.size());
+        } catch (MailSendException e) {
+            // Per-message failures are keyed by the original SimpleMailMessage; an empty map means nothing was sent
+            Map<Object, Exception> failedMessages = e.getFailedMessages();
+            if (failedMessages.isEmpty()) {
+                batch.forEach(email -> failures.put(email, e));
+            } else {
+                failedMessages.forEach((message, cause) -> {
+                    OutboxEmail email = messages.get(message);
+                    if (email != null) {
+                        failures.put(email, cause);
+                    }
+                });
+            }
+            circuitBreaker.recordFailure();
+        } catch (MailException e) {
+            batch.forEach(email -> failures.put(email, e));
+            circuitBreaker.recordFailure();
+        }
+        return failures;
+    }
+
+    private SimpleMailMessage toMessage(OutboxEmail email) {
+        SimpleMailMessage msg = new SimpleMailMessage();
+        msg.setFrom(fromAddress);
+        msg.setTo(email.getRecipient());
+        msg.setSubject(email.getSubject());
+        msg.setText(email.getBody());
+        return msg;
+    }
+
+    private void scheduleRetry(OutboxEmail email, Exception failure, Instant now) {
+        int attempts = email.getAttempts() + 1;
+        email.setAttempts(attempts);
+        email.setLastError(truncate(String.valueOf(failure.getMessage())));
+        if (attempts >= maxAttempts) {
+            email.setStatus(OutboxStatus.FAILED);
+            log.warn("[Outbox] Giving up on email {} to {} after {} attempts: {}",
+                    email.getId(), email.getRecipient(), attempts, failure.getMessage());
+        } else {
+            email.setStatus(OutboxStatus.PENDING);
+            email.setNextAttemptAt(now.plus(backoff(attempts)));
+        }
+    }
+
+    Duration backoff(int attempts) {
+        Duration delay = initialBackoff.multipliedBy(1L << Math.min(attempts - 1, 20));
+        return delay.compareTo(maxBackoff) > 0 ? maxBackoff : delay;
+    }
+
+    private static String truncate(String message) {
+        return message.length() <= 500 ? message : message.substring(0, 500);
+    }
+}
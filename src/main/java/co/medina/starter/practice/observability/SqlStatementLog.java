@@ -0,0 +1,83 @@
+package co.medina.starter.practice.observability;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Writes slow and sampled statements from a background thread, so a statement never waits on log I/O.
+ * Entries go through a bounded queue and are dropped (and counted) when it is full.
+ * <p>
+ * Each entry is logged with SLF4J key/value pairs; with {@code logging.structured.format.console=ecs} (or
+ * {@code logstash}) they come out as JSON fields. Bind parameters are never logged.
+ */
+class SqlStatementLog implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger("sql.telemetry");
+    private static final int MAX_SQL_LENGTH = 2_000;
+
+    record Entry(String reason, String sql, String type, long elapsedMicros, int batchSize, boolean success, String route) {
+    }
+
+    private final BlockingQueue<Entry> queue;
+    private final LongAdder dropped = new LongAdder();
+    private final Thread writer;
+    private volatile boolean running = true;
+
+    SqlStatementLog(int capacity) {
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        // platform thread: logback appenders lock around I/O, which would pin a virtual thread
+        this.writer = Thread.ofPlatform().name("sql-telemetry-log").daemon(true).start(this::drain);
+    }
+
+    void offer(Entry entry) {
+        if (!queue.offer(entry)) {
+            dropped.increment();
+        }
+    }
+
+    long dropped() {
+        return dropped.sum();
+    }
+
+    private void drain() {
+        try {
+            while (running || !queue.isEmpty()) {
+                Entry entry = queue.poll(500, TimeUnit.MILLISECONDS);
+                if (entry != null) {
+                    write(entry);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void write(Entry entry) {
+        String sql = entry.sql().length() > MAX_SQL_LENGTH ? entry.sql().substring(0, MAX_SQL_LENGTH) + "..." : entry.sql();
+        (entry.success() ? log.atInfo() : log.atWarn())
+                .setMessage("sql statement")
+                .addKeyValue("sql.reason", entry.reason())
+                .addKeyValue("sql.type", entry.type())
+                .addKeyValue("sql.elapsed_us", entry.elapsedMicros())
+                .addKeyValue("sql.batch_size", entry.batchSize())
+                .addKeyValue("sql.success", entry.success())
+                .addKeyValue("http.route", entry.route())
+                .addKeyValue("sql.text", sql)
+                .log();
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(2));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package co.medina.starter.practice.observability;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.servlet.http.HttpServletRequest;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import org.springframework.lang.NonNull;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JDBC-level statement telemetry, fed by the datasource-proxy wrapper installed in {@code SqlTelemetryConfig}.
+ * <p>
+ * Every execution (a batch counts once, as one round trip) is timed into {@code sql.statements} and added to the
+ * current request's totals, which {@link SqlTelemetryFilter} publishes per route. Only statements slower than
+ * {@code slow-threshold}, plus a {@code sample-rate} share of the rest, reach {@link SqlStatementLog}.
+ * <p>
+ * Request totals are thread-bound: statements run by async cache loaders on their own threads are timed but not
+ * attributed to the request that waited for them.
+ */
+public class SqlTelemetry implements QueryExecutionListener, MeterBinder, AutoCloseable {
+
+    private static final String START_NANOS = SqlTelemetry.class.getName() + ".start";
+    private static final String[] TYPES = {"select", "insert", "update", "delete", "other"};
+
+    private final long slowThresholdNanos;
+    private final double sampleRate;
+    private final SqlStatementLog statementLog;
+    private final ThreadLocal<RequestStats> currentRequest = new ThreadLocal<>();
+    private final List<Recording> recordings = new CopyOnWriteArrayList<>();
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+
+    public SqlTelemetry(Duration slowThreshold, double sampleRate, int logQueueCapacity) {
+        this.slowThresholdNanos = slowThreshold.toNanos();
+        this.sampleRate = sampleRate;
+        this.statementLog = new SqlStatementLog(logQueueCapacity);
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        execInfo.addCustomValue(START_NANOS, System.nanoTime());
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        Long start = execInfo.getCustomValue(START_NANOS, Long.class);
+        long elapsed = start == null ? TimeUnit.MILLISECONDS.toNanos(execInfo.getElapsedTime()) : System.nanoTime() - start;
+        String sql = queryInfoList.isEmpty() ? "" : queryInfoList.getFirst().getQuery();
+        String type = typeOf(sql);
+
+        Timer timer = timers.get(type + ':' + execInfo.isSuccess());
+        if (timer != null) {
+            timer.record(elapsed, TimeUnit.NANOSECONDS);
+        }
+        RequestStats request = currentRequest.get();
+        if (request != null) {
+            request.statements++;
+            request.nanos += elapsed;
+        }
+        if (!recordings.isEmpty()) {
+            recordings.forEach(recording -> recording.statements.add(sql));
+        }
+
+        boolean slow = elapsed >= slowThresholdNanos;
+        if (slow || !execInfo.isSuccess() || ThreadLocalRandom.current().nextDouble() < sampleRate) {
+            statementLog.offer(new SqlStatementLog.Entry(slow ? "slow" : execInfo.isSuccess() ? "sampled" : "error",
+                    sql, type, TimeUnit.NANOSECONDS.toMicros(elapsed), Math.max(1, execInfo.getBatchSize()),
+                    execInfo.isSuccess(), request == null ? null : request.route()));
+        }
+    }
+
+    /**
+     * Starts counting statements issued on this thread; pair with {@link #endRequest()}.
+     */
+    RequestStats beginRequest(HttpServletRequest request) {
+        RequestStats stats = new RequestStats(request);
+        currentRequest.set(stats);
+        return stats;
+    }
+
+    void endRequest() {
+        currentRequest.remove();
+    }
+
+    /**
+     * Captures every statement executed on any thread until the recording is closed. Intended for tests that pin
+     * the number of statements an operation issues.
+     */
+    public Recording record() {
+        Recording recording = new Recording();
+        recordings.add(recording);
+        return recording;
+    }
+
+    @Override
+    public void bindTo(@NonNull MeterRegistry registry) {
+        for (String type : TYPES) {
+            for (boolean success : new boolean[]{true, false}) {
+                timers.put(type + ':' + success, Timer.builder("sql.statements")
+                        .description("JDBC statement executions; a batch counts as one")
+                        .tag("type", type)
+                        .tag("outcome", success ? "success" : "error")
+                        .register(registry));
+            }
+        }
+        FunctionCounter.builder("sql.log.dropped", statementLog, SqlStatementLog::dropped)
+                .description("Slow or sampled statements not logged because the log queue was full")
+                .register(registry);
+    }
+
+    @Override
+    public void close() {
+        statementLog.close();
+    }
+
+    static String typeOf(String sql) {
+        String head = sql.stripLeading();
+        int end = 0;
+        while (end < head.length() && Character.isLetter(head.charAt(end))) {
+            end++;
+        }
+        String keyword = head.substring(0, end).toLowerCase(Locale.ROOT);
+        return switch (keyword) {
+            case "select", "insert", "update", "delete" -> keyword;
+            default -> "other";
+        };
+    }
+
+    static final class RequestStats {
+        private final HttpServletRequest request;
+        private int statements;
+        private long nanos;
+
+        private RequestStats(HttpServletRequest request) {
+            this.request = request;
+        }
+
+        /**
+         * The matched handler pattern, known once dispatch has picked a handler.
+         */
+        String route() {
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            return pattern == null ? "UNKNOWN" : pattern.toString();
+        }
+
+        int statements() {
+            return statements;
+        }
+
+        long nanos() {
+            return nanos;
+        }
+    }
+
+    public final class Recording implements AutoCloseable {
+        private final Queue<String> statements = new ConcurrentLinkedQueue<>();
+
+        public List<String> statements() {
+            return new ArrayList<>(statements);
+        }
+
+        @Override
+        public void close() {
+            recordings.remove(this);
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package co.medina.starter.practice.observability;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.lang.NonNull;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Publishes how many statements each request issued and how long they took, tagged by the matched route
+ * ({@code /v1/api/users/{id}}, never the raw path), so N+1 regressions show up as a shifted distribution.
+ */
+public class SqlTelemetryFilter extends OncePerRequestFilter implements MeterBinder {
+
+    private final SqlTelemetry telemetry;
+    private volatile MeterRegistry meterRegistry;
+
+    public SqlTelemetryFilter(SqlTelemetry telemetry) {
+        this.telemetry = telemetry;
+    }
+
+    @Override
+    public void bindTo(@NonNull MeterRegistry registry) {
+        this.meterRegistry = registry;
+    }
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response,
+                                    @NonNull FilterChain filterChain) throws ServletException, IOException {
+        SqlTelemetry.RequestStats stats = telemetry.beginRequest(request);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            telemetry.endRequest();
+            record(stats.route(), stats);
+        }
+    }
+
+    private void record(String route, SqlTelemetry.RequestStats stats) {
+        MeterRegistry registry = meterRegistry;
+        if (registry == null) {
+            return;
+        }
+        // Micrometer caches meters by id, so re-registering per request is a lookup
+        DistributionSummary.builder("http.server.sql.statements")
+                .description("JDBC statements issued while serving a request")
+                .tag("uri", route)
+                .register(registry)
+                .record(stats.statements());
+        Timer.builder("http.server.sql.time")
+                .description("Time spent in JDBC statements while serving a request")
+                .tag("uri", route)
+                .register(registry)
+                .record(stats.nanos(), TimeUnit.NANOSECONDS);
+    }
+}
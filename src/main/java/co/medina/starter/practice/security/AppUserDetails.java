@@ -0,0 +1,31 @@
+package co.medina.starter.practice.security;
+
+import lombok.ToString;
+import lombok.Value;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Collection;
+
+/**
+ * Immutable principal carrying the user id, token version and verification status alongside the usual credentials.
+ * It does not implement CredentialsContainer, so instances can be shared safely.
+ * <p>
+ * Unverified accounts report {@link #isEnabled()} false, so the authentication provider rejects them from the
+ * same row it loaded the password hash from, once the password has matched (see {@link LoginAuthenticationProvider}).
+ */
+@Value
+public class AppUserDetails implements UserDetails {
+    Long id;
+    String username;
+    @ToString.Exclude
+    String password;
+    int tokenVersion;
+    boolean emailVerified;
+    Collection<? extends GrantedAuthority> authorities;
+
+    @Override
+    public boolean isEnabled() {
+        return emailVerified;
+    }
+}
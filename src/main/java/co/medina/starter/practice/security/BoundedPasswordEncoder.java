@@ -0,0 +1,124 @@
+package co.medina.starter.practice.security;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.lang.NonNull;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Runs every hash and match of the wrapped encoder on a fixed pool of platform threads with a bounded queue.
+ * <p>
+ * BCrypt is pure CPU, so a login spike hashing on request threads starves every other endpoint. Here at most
+ * {@code threads} hashes run at once and at most {@code queueCapacity} wait; anything beyond that fails fast with
+ * {@link PasswordHashingRejectedException} rather than queueing unboundedly. Callers block until their hash is done,
+ * which is cheap on virtual request threads.
+ */
+public class BoundedPasswordEncoder implements PasswordEncoder, MeterBinder, AutoCloseable {
+
+    private final PasswordEncoder delegate;
+    private final ThreadPoolExecutor executor;
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder waitNanos = new LongAdder();
+    private volatile Timer encodeTimer;
+    private volatile Timer matchesTimer;
+
+    public BoundedPasswordEncoder(PasswordEncoder delegate, int threads, int queueCapacity) {
+        this.delegate = delegate;
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                Thread.ofPlatform().name("password-hash-", 0).daemon(true).factory(),
+                new ThreadPoolExecutor.AbortPolicy());
+        this.executor.prestartAllCoreThreads();
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return run(() -> delegate.encode(rawPassword), true);
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return run(() -> delegate.matches(rawPassword, encodedPassword), false);
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    private <T> T run(Callable<T> hashing, boolean encode) {
+        long submittedAt = System.nanoTime();
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                waitNanos.add(System.nanoTime() - submittedAt);
+                completed.increment();
+                Timer timer = encode ? encodeTimer : matchesTimer;
+                return timer == null ? hashing.call() : timer.recordCallable(hashing);
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new PasswordHashingRejectedException("Password hashing capacity exhausted");
+        }
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for password hashing", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    @Override
+    public void bindTo(@NonNull MeterRegistry registry) {
+        Gauge.builder("auth.hashing.queue.depth", executor, e -> e.getQueue().size())
+                .description("Password hashes waiting for a hashing thread")
+                .register(registry);
+        Gauge.builder("auth.hashing.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Password hashes currently running")
+                .register(registry);
+        FunctionTimer.builder("auth.hashing.wait", this, e -> e.completed.sum(), e -> e.waitNanos.sum(), TimeUnit.NANOSECONDS)
+                .description("Time password hashes spent queued before a hashing thread picked them up")
+                .register(registry);
+        FunctionCounter.builder("auth.hashing.rejected", rejected, LongAdder::sum)
+                .description("Password hashes rejected because the queue was full")
+                .register(registry);
+        encodeTimer = hashTimer(registry, "encode");
+        matchesTimer = hashTimer(registry, "matches");
+    }
+
+    private static Timer hashTimer(MeterRegistry registry, String operation) {
+        return Timer.builder("security.password")
+                .description("Time spent hashing on a hashing thread, excluding queue wait")
+                .tag("operation", operation)
+                .register(registry);
+    }
+
+    int queueDepth() {
+        return executor.getQueue().size();
+    }
+
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+}
@@ -14,20 +14,28 @@ import java.util.List;
 public class CustomUserDetailsService implements UserDetailsService {
 
     private final UserRepository userRepository;
+    private final UserDetailsCache userDetailsCache;
 
-    public CustomUserDetailsService(UserRepository userRepository) {
+    public CustomUserDetailsService(UserRepository userRepository, UserDetailsCache userDetailsCache) {
         this.userRepository = userRepository;
+        this.userDetailsCache = userDetailsCache;
     }
 
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
+        return userDetailsCache.get(username, this::loadFromDatabase);
+    }
+
+    private AppUserDetails loadFromDatabase(String username) {
         User user = userRepository.findByEmail(username)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found: " + username));
-        return new org.springframework.security.core.userdetails.User(
+        return new AppUserDetails(
+                user.getId(),
                 user.getEmail(),
                 user.getPassword() == null ? "" : user.getPassword(),
+                user.getTokenVersion(),
+                user.isEmailVerified(),
                 List.of(new SimpleGrantedAuthority("ROLE_USER"))
         );
     }
 }
-
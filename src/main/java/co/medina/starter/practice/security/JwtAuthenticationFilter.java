@@ -1,31 +1,82 @@
 package co.medina.starter.practice.security;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 @Component
-public class JwtAuthenticationFilter extends OncePerRequestFilter {
+public class JwtAuthenticationFilter extends OncePerRequestFilter implements MeterBinder {
+
+    private static final AntPathMatcher PATH_MATCHER = new AntPathMatcher();
 
     private final JwtUtil jwtUtil;
     private final UserDetailsService userDetailsService;
+    private final TokenVersionService tokenVersionService;
+    private final boolean stateless;
+    private final List<String> skipPaths;
+    // filters cannot be proxied for @Timed (doFilter is final), so timers are registered when the registry binds us
+    private volatile Timer authenticatedTimer;
+    private volatile Timer anonymousTimer;
 
-    public JwtAuthenticationFilter(JwtUtil jwtUtil, UserDetailsService userDetailsService) {
+    public JwtAuthenticationFilter(JwtUtil jwtUtil, UserDetailsService userDetailsService,
+                                   TokenVersionService tokenVersionService,
+                                   @Value("${jwt.stateless.enabled:false}") boolean stateless,
+                                   @Value("${jwt.filter.skip-paths:}") String[] skipPaths) {
         this.jwtUtil = jwtUtil;
         this.userDetailsService = userDetailsService;
+        this.tokenVersionService = tokenVersionService;
+        this.stateless = stateless;
+        this.skipPaths = List.of(skipPaths);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return skipPaths.stream().anyMatch(pattern -> PATH_MATCHER.match(pattern, path));
+    }
+
+    @Override
+    public void bindTo(@NonNull MeterRegistry registry) {
+        this.anonymousTimer = filterTimer(registry, false);
+        this.authenticatedTimer = filterTimer(registry, true);
+    }
+
+    private static Timer filterTimer(MeterRegistry registry, boolean authenticated) {
+        return Timer.builder("security.jwt.filter")
+                .description("Time spent authenticating a request from its bearer token, excluding the rest of the chain")
+                .tag("authenticated", Boolean.toString(authenticated))
+                .register(registry);
     }
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        long start = System.nanoTime();
+        boolean authenticated = authenticate(request);
+        Timer timer = authenticated ? authenticatedTimer : anonymousTimer;
+        if (timer != null) {
+            timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    private boolean authenticate(HttpServletRequest request) {
         final String authHeader = request.getHeader("Authorization");
         String username = null;
         String jwt = null;
@@ -38,15 +89,27 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         }
 
         if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = this.userDetailsService.loadUserByUsername(username);
-            if (jwtUtil.validateToken(jwt, userDetails)) {
+            AppUserDetails claimsPrincipal = stateless ? jwtUtil.extractPrincipal(jwt) : null;
+            UserDetails userDetails = claimsPrincipal != null
+                    ? authenticateFromClaims(claimsPrincipal)
+                    : authenticateFromUserStore(jwt, username);
+            if (userDetails != null) {
                 UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
                         userDetails, null, userDetails.getAuthorities());
                 SecurityContextHolder.getContext().setAuthentication(authToken);
+                return true;
             }
         }
+        return false;
+    }
 
-        filterChain.doFilter(request, response);
+    private UserDetails authenticateFromClaims(AppUserDetails principal) {
+        // signature and expiry were verified while parsing; only revocation is left to check
+        return tokenVersionService.isCurrent(principal.getId(), principal.getTokenVersion()) ? principal : null;
     }
-}
 
+    private UserDetails authenticateFromUserStore(String jwt, String username) {
+        UserDetails userDetails = this.userDetailsService.loadUserByUsername(username);
+        return jwtUtil.validateToken(jwt, userDetails) ? userDetails : null;
+    }
+}
@@ -1,34 +1,48 @@
 package co.medina.starter.practice.security;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
 import java.security.Key;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.function.Function;
 
 @Component
 public class JwtUtil {
 
-    @Value("${jwt.secret}")
-    private String secret;
+    static final String ROLES_CLAIM = "roles";
+    static final String USER_ID_CLAIM = "uid";
+    static final String TOKEN_VERSION_CLAIM = "ver";
 
-    @Value("${jwt.expiration-ms:3600000}")
-    private long expirationMs;
+    private final long expirationMs;
+    private final Key signingKey;
+    private final JwtParser parser;
+    private final VerifiedTokenCache tokenCache;
 
-    private Key getSigningKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(secret);
-        return Keys.hmacShaKeyFor(keyBytes);
+    public JwtUtil(@Value("${jwt.secret}") String secret,
+                   @Value("${jwt.expiration-ms:3600000}") long expirationMs,
+                   VerifiedTokenCache tokenCache) {
+        this.expirationMs = expirationMs;
+        // Key derivation and parser construction are done once; JwtParser is immutable and thread-safe
+        this.signingKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(secret));
+        this.parser = Jwts.parserBuilder().setSigningKey(signingKey).build();
+        this.tokenCache = tokenCache;
     }
 
+    @Timed(value = "security.jwt", extraTags = {"operation", "parse"})
     public String extractUsername(String token) {
         return extractClaim(token, Claims::getSubject);
     }
@@ -39,15 +53,39 @@ public class JwtUtil {
     }
 
     private Claims extractAllClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        return tokenCache.get(token, this::parseClaims);
     }
 
+    private Claims parseClaims(String token) {
+        return parser.parseClaimsJws(token).getBody();
+    }
+
+    /**
+     * Builds the principal from the token claims alone, for claims-only authentication.
+     * Returns null for tokens issued without the id/version claims.
+     */
+    @Timed(value = "security.jwt", extraTags = {"operation", "parse"})
+    public AppUserDetails extractPrincipal(String token) {
+        final Claims claims = extractAllClaims(token);
+        if (!(claims.get(USER_ID_CLAIM) instanceof Number userId)
+                || !(claims.get(TOKEN_VERSION_CLAIM) instanceof Number tokenVersion)) {
+            return null;
+        }
+        List<SimpleGrantedAuthority> authorities = claims.get(ROLES_CLAIM) instanceof List<?> roles
+                ? roles.stream().map(String::valueOf).map(SimpleGrantedAuthority::new).toList()
+                : List.of();
+        // tokens are only issued after a login, which requires a verified email
+        return new AppUserDetails(userId.longValue(), claims.getSubject(), "", tokenVersion.intValue(), true, authorities);
+    }
+
+    @Timed(value = "security.jwt", extraTags = {"operation", "generate"})
     public String generateToken(UserDetails userDetails) {
         Map<String, Object> claims = new HashMap<>();
+        claims.put(ROLES_CLAIM, userDetails.getAuthorities().stream().map(GrantedAuthority::getAuthority).toList());
+        if (userDetails instanceof AppUserDetails appUser) {
+            claims.put(USER_ID_CLAIM, appUser.getId());
+            claims.put(TOKEN_VERSION_CLAIM, appUser.getTokenVersion());
+        }
         return createToken(claims, userDetails.getUsername());
     }
 
@@ -59,10 +97,11 @@ public class JwtUtil {
                 .setSubject(subject)
                 .setIssuedAt(now)
                 .setExpiration(expiry)
-                .signWith(getSigningKey(), SignatureAlgorithm.HS256)
+                .signWith(signingKey, SignatureAlgorithm.HS256)
                 .compact();
     }
 
+    @Timed(value = "security.jwt", extraTags = {"operation", "validate"})
     public boolean validateToken(String token, UserDetails userDetails) {
         final String username = extractUsername(token);
         return (username.equals(userDetails.getUsername()) && !isTokenExpired(token));
@@ -73,4 +112,3 @@ public class JwtUtil {
         return expiration.before(new Date());
     }
 }
-
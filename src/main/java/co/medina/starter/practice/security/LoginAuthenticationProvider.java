@@ -0,0 +1,24 @@
+package co.medina.starter.practice.security;
+
+import org.springframework.security.authentication.AccountStatusUserDetailsChecker;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * Username/password authentication that checks the account status (unverified, locked, expired) only after the
+ * password matched. Spring's default checks the status first, so an unverified account would be turned away
+ * without hashing, in a fraction of the time a wrong password takes: a timing oracle for "registered but not
+ * verified". Here every login with a known email pays for one password match, and a wrong password is reported the
+ * same way whatever the account status.
+ */
+public class LoginAuthenticationProvider extends DaoAuthenticationProvider {
+
+    public LoginAuthenticationProvider(UserDetailsService userDetailsService, PasswordEncoder passwordEncoder) {
+        super(userDetailsService);
+        setPasswordEncoder(passwordEncoder);
+        setPreAuthenticationChecks(user -> {
+        });
+        setPostAuthenticationChecks(new AccountStatusUserDetailsChecker());
+    }
+}
@@ -0,0 +1,11 @@
+package co.medina.starter.practice.security;
+
+/**
+ * Thrown when the password-hashing queue is full; mapped to 503 so clients back off instead of piling up.
+ */
+public class PasswordHashingRejectedException extends RuntimeException {
+
+    public PasswordHashingRejectedException(String message) {
+        super(message);
+    }
+}
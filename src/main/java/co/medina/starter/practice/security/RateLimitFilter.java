@@ -0,0 +1,187 @@
+package co.medina.starter.practice.security;
+
+import co.medina.starter.practice.web.BufferedBodyRequest;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.lang.NonNull;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Token-bucket rate limiting for expensive routes (login and register each cost a BCrypt hash).
+ * <p>
+ * Each bucket is a single {@link AtomicLong} holding the GCRA "theoretical arrival time", updated with a CAS loop,
+ * so admission is lock-free. Buckets live in a size-bounded Caffeine cache that drops idle ones, so memory stays
+ * bounded however many clients show up. Rejected requests get 429 with a {@code Retry-After} header. A request is
+ * admitted only when every limit on its route admits it; tokens taken from the other limits of a rejected request are
+ * handed back, so a request refused by one limit does not drain the others.
+ * <p>
+ * Registered ahead of the Spring Security chain in {@code RateLimitConfig}.
+ */
+public class RateLimitFilter extends OncePerRequestFilter implements MeterBinder {
+
+    private static final AntPathMatcher PATH_MATCHER = new AntPathMatcher();
+    // auth bodies are tiny; anything bigger is keyed by IP instead of being buffered
+    private static final int MAX_BUFFERED_BODY = 8 * 1024;
+    private static final long UNSET = Long.MIN_VALUE;
+
+    private final List<Limit> limits;
+    private final Cache<String, AtomicLong> buckets;
+    private final ObjectMapper objectMapper;
+    private final LongSupplier nanoClock;
+
+    public RateLimitFilter(RateLimitProperties properties, ObjectMapper objectMapper) {
+        this(properties, objectMapper, System::nanoTime);
+    }
+
+    RateLimitFilter(RateLimitProperties properties, ObjectMapper objectMapper, LongSupplier nanoClock) {
+        this.limits = properties.routes().entrySet().stream()
+                .map(entry -> new Limit(entry.getKey(), entry.getValue()))
+                .toList();
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(properties.maxBuckets())
+                .expireAfterAccess(properties.idleTimeout())
+                .build();
+        this.objectMapper = objectMapper;
+        this.nanoClock = nanoClock;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        return matching(request).isEmpty();
+    }
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response,
+                                    @NonNull FilterChain filterChain) throws ServletException, IOException {
+        List<Limit> matched = matching(request);
+        HttpServletRequest effective = request;
+        String email = null;
+        if (matched.stream().anyMatch(limit -> limit.route.key() == RateLimitProperties.KeyType.EMAIL)) {
+            BufferedBodyRequest buffered = BufferedBodyRequest.of(request, MAX_BUFFERED_BODY);
+            if (buffered != null) {
+                effective = buffered;
+                email = emailOf(buffered.body());
+            }
+        }
+
+        long waitNanos = 0;
+        List<Runnable> refunds = new ArrayList<>(matched.size());
+        for (Limit limit : matched) {
+            String client = limit.route.key() == RateLimitProperties.KeyType.EMAIL && email != null
+                    ? "email:" + email
+                    : "ip:" + request.getRemoteAddr();
+            AtomicLong bucket = buckets.get(limit.name + '|' + client, __ -> new AtomicLong(UNSET));
+            long wait = limit.tryAcquire(bucket, nanoClock.getAsLong());
+            if (wait > 0) {
+                limit.rejections.increment();
+                waitNanos = Math.max(waitNanos, wait);
+            } else {
+                refunds.add(() -> limit.refund(bucket));
+            }
+        }
+
+        if (waitNanos > 0) {
+            refunds.forEach(Runnable::run);
+            long retryAfterSeconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + TimeUnit.SECONDS.toNanos(1) - 1));
+            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.getWriter().write("{\"message\":\"Too many requests\"}");
+            return;
+        }
+        filterChain.doFilter(effective, response);
+    }
+
+    @Override
+    public void bindTo(@NonNull MeterRegistry registry) {
+        for (Limit limit : limits) {
+            FunctionCounter.builder("http.rate_limit.rejections", limit.rejections, LongAdder::sum)
+                    .description("Requests rejected with 429 by the rate limiter")
+                    .tag("route", limit.name)
+                    .register(registry);
+        }
+    }
+
+    long rejections(String route) {
+        return limits.stream().filter(limit -> limit.name.equals(route)).mapToLong(limit -> limit.rejections.sum()).sum();
+    }
+
+    private List<Limit> matching(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        List<Limit> matched = new ArrayList<>(2);
+        for (Limit limit : limits) {
+            if (limit.route.method().equalsIgnoreCase(request.getMethod()) && PATH_MATCHER.match(limit.route.path(), path)) {
+                matched.add(limit);
+            }
+        }
+        return matched;
+    }
+
+    private String emailOf(byte[] body) {
+        try {
+            JsonNode email = objectMapper.readTree(body).path("email");
+            return email.isTextual() ? email.asText().trim().toLowerCase(Locale.ROOT) : null;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private static final class Limit {
+        private final String name;
+        private final RateLimitProperties.Route route;
+        private final long emissionIntervalNanos;
+        private final long burstToleranceNanos;
+        private final LongAdder rejections = new LongAdder();
+
+        Limit(String name, RateLimitProperties.Route route) {
+            this.name = name;
+            this.route = route;
+            this.emissionIntervalNanos = route.refillPeriod().toNanos() / route.capacity();
+            this.burstToleranceNanos = emissionIntervalNanos * (route.capacity() - 1);
+        }
+
+        /**
+         * GCRA admission: returns 0 and consumes a token, or returns how long the client must wait.
+         */
+        long tryAcquire(AtomicLong theoreticalArrival, long now) {
+            while (true) {
+                long current = theoreticalArrival.get();
+                long start = current == UNSET ? now : Math.max(current, now);
+                long wait = start - burstToleranceNanos - now;
+                if (wait > 0) {
+                    return wait;
+                }
+                if (theoreticalArrival.compareAndSet(current, start + emissionIntervalNanos)) {
+                    return 0;
+                }
+            }
+        }
+
+        /** Gives back a token taken by {@link #tryAcquire} for a request that another limit rejected. */
+        void refund(AtomicLong theoreticalArrival) {
+            theoreticalArrival.getAndUpdate(current -> current == UNSET ? current : current - emissionIntervalNanos);
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package co.medina.starter.practice.security;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Per-route token buckets for {@link RateLimitFilter}, bound from {@code app.rate-limit.*}.
+ *
+ * @param maxBuckets  upper bound on live buckets across all routes and clients
+ * @param idleTimeout buckets untouched for this long are dropped (a dropped bucket is simply full again)
+ * @param routes      route name to limit; the name is used as the {@code route} metric tag
+ */
+@ConfigurationProperties(prefix = "app.rate-limit")
+public record RateLimitProperties(@DefaultValue("true") boolean enabled,
+                                  @DefaultValue("100000") long maxBuckets,
+                                  @DefaultValue("10m") Duration idleTimeout,
+                                  Map<String, Route> routes) {
+
+    public RateLimitProperties {
+        routes = routes == null ? Map.of() : Map.copyOf(routes);
+    }
+
+    /**
+     * @param path         Ant pattern matched against the request path without the context path
+     * @param method       HTTP method the limit applies to
+     * @param key          what identifies a client: its IP address, or the {@code email} field of the JSON body
+     * @param capacity     burst size, i.e. requests allowed back to back from a full bucket
+     * @param refillPeriod time for an empty bucket to refill completely
+     */
+    public record Route(String path,
+                        @DefaultValue("POST") String method,
+                        @DefaultValue("IP") KeyType key,
+                        @DefaultValue("10") long capacity,
+                        @DefaultValue("1m") Duration refillPeriod) {
+    }
+
+    public enum KeyType { IP, EMAIL }
+}
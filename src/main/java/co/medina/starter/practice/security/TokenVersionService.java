@@ -0,0 +1,66 @@
+package co.medina.starter.practice.security;
+
+import co.medina.starter.practice.datasource.ReadWriteRoutingDataSource;
+import co.medina.starter.practice.user.domain.UserChangedEvent;
+import co.medina.starter.practice.user.repo.UserRepository;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.concurrent.Executor;
+
+/**
+ * Revocation check for claims-only authentication. Resolves the current token version of a user
+ * with a single-column query and caches it briefly, instead of loading the whole user row.
+ * Loads run on virtual threads outside the cache's internal locks (see {@link UserDetailsCache}).
+ */
+@Service
+public class TokenVersionService implements MeterBinder {
+
+    static final String CACHE_NAME = "jwt.token-versions";
+    private static final int MISSING_USER = -1;
+    private static final Executor LOADER = ReadWriteRoutingDataSource.virtualLoader("token-version-load");
+
+    private final UserRepository userRepository;
+    private final AsyncCache<Long, Integer> versions;
+
+    public TokenVersionService(UserRepository userRepository,
+                               @Value("${jwt.stateless.version-cache-ttl:30s}") Duration ttl,
+                               @Value("${jwt.stateless.version-cache-max-size:10000}") long maxSize) {
+        this.userRepository = userRepository;
+        this.versions = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .executor(LOADER)
+                .recordStats()
+                .buildAsync();
+    }
+
+    public boolean isCurrent(Long userId, int tokenVersion) {
+        Integer current = versions.get(userId, id -> userRepository.findTokenVersionById(id).orElse(MISSING_USER)).join();
+        return current != null && current == tokenVersion;
+    }
+
+    public void evict(Long userId) {
+        versions.synchronous().invalidate(userId);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        if (event.userId() != null) {
+            evict(event.userId());
+        }
+    }
+
+    @Override
+    public void bindTo(@NonNull MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, versions.synchronous(), CACHE_NAME);
+    }
+}
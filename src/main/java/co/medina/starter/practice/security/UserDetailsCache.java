@@ -0,0 +1,78 @@
+package co.medina.starter.practice.security;
+
+import co.medina.starter.practice.datasource.ReadWriteRoutingDataSource;
+import co.medina.starter.practice.user.domain.UserChangedEvent;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+
+/**
+ * Bounded, TTL-evicting cache of {@link AppUserDetails} keyed by username (email).
+ * Entries are dropped after any committed change to the user, so password, email and
+ * verification changes are never served stale.
+ * <p>
+ * Loads run asynchronously on virtual threads: a synchronous Caffeine load executes inside
+ * ConcurrentHashMap.compute, whose monitor would pin a virtual request thread for the whole query.
+ * Invalidating a key while its load is in flight discards that load.
+ */
+@Component
+public class UserDetailsCache implements MeterBinder {
+
+    static final String CACHE_NAME = "security.user-details";
+
+    private static final Executor LOADER = ReadWriteRoutingDataSource.virtualLoader("user-details-load");
+
+    private final AsyncCache<String, AppUserDetails> cache;
+
+    public UserDetailsCache(@Value("${app.security.user-details-cache.ttl:5m}") Duration ttl,
+                            @Value("${app.security.user-details-cache.max-size:10000}") long maxSize) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .executor(LOADER)
+                .recordStats()
+                .buildAsync();
+    }
+
+    public AppUserDetails get(String username, Function<String, AppUserDetails> loader) {
+        try {
+            return cache.get(username, loader).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        if (event.email() == null && event.previousEmail() == null) {
+            // deletions only carry the id
+            cache.synchronous().asMap().values().removeIf(details -> details.getId().equals(event.userId()));
+            return;
+        }
+        if (event.email() != null) {
+            cache.synchronous().invalidate(event.email());
+        }
+        if (event.previousEmail() != null) {
+            cache.synchronous().invalidate(event.previousEmail());
+        }
+    }
+
+    @Override
+    public void bindTo(@NonNull MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache.synchronous(), CACHE_NAME);
+    }
+}
@@ -0,0 +1,91 @@
+package co.medina.starter.practice.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Bounded cache of tokens whose signature has already been verified.
+ * Keys are SHA-256 digests of the compact token, so raw bearer tokens are never held in memory,
+ * and every entry expires exactly when the token's {@code exp} claim passes.
+ */
+@Component
+public class VerifiedTokenCache implements MeterBinder {
+
+    static final String CACHE_NAME = "jwt.verified-tokens";
+
+    private final Cache<String, Claims> cache;
+
+    public VerifiedTokenCache(@Value("${jwt.token-cache.max-size:10000}") long maxSize) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new UntilTokenExpiry())
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Returns the cached claims for the token, or runs the verifier once and caches its result.
+     * Verifier exceptions propagate and nothing is cached, so invalid tokens are re-checked every time.
+     */
+    public Claims get(String token, Function<String, Claims> verifier) {
+        return cache.get(digest(token), __ -> verifier.apply(token));
+    }
+
+    CacheStats stats() {
+        return cache.stats();
+    }
+
+    @Override
+    public void bindTo(@NonNull MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, CACHE_NAME);
+    }
+
+    private static String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().withoutPadding().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static final class UntilTokenExpiry implements Expiry<String, Claims> {
+
+        @Override
+        public long expireAfterCreate(@NonNull String key, @NonNull Claims claims, long currentTime) {
+            Date expiration = claims.getExpiration();
+            if (expiration == null) {
+                return 0L;
+            }
+            long remainingMs = expiration.getTime() - System.currentTimeMillis();
+            return Math.max(0L, TimeUnit.MILLISECONDS.toNanos(remainingMs));
+        }
+
+        @Override
+        public long expireAfterUpdate(@NonNull String key, @NonNull Claims claims, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+
+        @Override
+        public long expireAfterRead(@NonNull String key, @NonNull Claims claims, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -1,5 +1,8 @@
 package co.medina.starter.practice.user.api;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
 import io.vavr.control.Either;
 import org.springframework.core.MethodParameter;
 import org.springframework.http.MediaType;
@@ -10,8 +13,23 @@ import org.springframework.lang.NonNull;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Unwraps {@link Either} return values: the right side becomes the body, an {@link ApiError} on the left sets the
+ * status. Every ApiError is counted in {@code api.errors}, tagged by status and controller.
+ */
 @ControllerAdvice
-public class EitherResponseHandler implements ResponseBodyAdvice<Object> {
+public class EitherResponseHandler implements ResponseBodyAdvice<Object>, MeterBinder {
+
+    private final Map<String, Counter> errorCounters = new ConcurrentHashMap<>();
+    private volatile MeterRegistry meterRegistry;
+
+    @Override
+    public void bindTo(@NonNull MeterRegistry registry) {
+        this.meterRegistry = registry;
+    }
 
     @Override
     public boolean supports(@NonNull MethodParameter returnType, @NonNull Class<? extends HttpMessageConverter<?>> converterType) {
@@ -26,6 +44,7 @@ public class EitherResponseHandler implements ResponseBodyAdvice<Object> {
             if (either.isLeft()) {
                 Object leftValue = either.getLeft();
                 if (leftValue instanceof ApiError apiError) {
+                    countError(apiError, returnType.getContainingClass());
                     response.setStatusCode(apiError.status());
                     return apiError;
                 }
@@ -35,4 +54,18 @@ public class EitherResponseHandler implements ResponseBodyAdvice<Object> {
         }
         return body;
     }
+
+    private void countError(ApiError apiError, Class<?> controller) {
+        MeterRegistry registry = meterRegistry;
+        if (registry == null) {
+            return;
+        }
+        String status = Integer.toString(apiError.status().value());
+        errorCounters.computeIfAbsent(controller.getSimpleName() + ':' + status, __ -> Counter.builder("api.errors")
+                        .description("ApiError responses returned by controllers")
+                        .tag("controller", controller.getSimpleName())
+                        .tag("status", status)
+                        .register(registry))
+                .increment();
+    }
 }
@@ -1,25 +1,54 @@
 package co.medina.starter.practice.user.api;
 
+import co.medina.starter.practice.user.api.dto.BatchResult;
+import co.medina.starter.practice.user.api.dto.CursorPage;
+import co.medina.starter.practice.user.api.dto.PageResponse;
+import co.medina.starter.practice.user.api.dto.UserCursor;
+import co.medina.starter.practice.user.api.dto.UserImportSummary;
 import co.medina.starter.practice.user.api.dto.UserRequest;
 import co.medina.starter.practice.user.api.dto.UserResponse;
+import co.medina.starter.practice.user.domain.User;
+import co.medina.starter.practice.user.service.UserExportService;
+import co.medina.starter.practice.user.service.UserImportService;
 import co.medina.starter.practice.user.service.UserService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import io.vavr.control.Either;
+import io.vavr.control.Try;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.dao.DataIntegrityViolationException;
-import org.springframework.data.domain.Page;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
 
 @RestController
@@ -27,8 +56,14 @@ import java.util.NoSuchElementException;
 @RequiredArgsConstructor
 public class UserController {
 
+    // never a user version (they start at 0), so an unusable If-Match tag always fails the precondition
+    private static final long NO_VERSION = -1;
+
     private final UserService userService;
+    private final UserImportService userImportService;
+    private final UserExportService userExportService;
     private final UserMapper userMapper;
+    private final ObjectMapper objectMapper;
 
     @PostMapping
     @ResponseStatus(HttpStatus.CREATED)
@@ -38,32 +73,179 @@ public class UserController {
             .mapLeft(this::mapToApiError);
     }
 
+    /**
+     * Creates users from an NDJSON or CSV body. The body is parsed as it arrives and one NDJSON result line per
+     * input row is streamed back, followed by a {@code {"summary": ...}} line.
+     */
+    @PostMapping(path = "/bulk",
+            consumes = {MediaType.APPLICATION_NDJSON_VALUE, UserImportReader.TEXT_CSV_VALUE},
+            produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public StreamingResponseBody bulkImport(@RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+                                            HttpServletRequest request) throws IOException {
+        InputStream body = request.getInputStream();
+        boolean csv = MediaType.parseMediaType(UserImportReader.TEXT_CSV_VALUE).includes(contentType);
+        ObjectWriter writer = objectMapper.writer();
+        return out -> {
+            OutputStream buffered = new BufferedOutputStream(out);
+            Either<Throwable, UserImportSummary> outcome = userImportService.importUsers(
+                    new UserImportReader(body, csv, objectMapper), result -> writeLine(buffered, writer, result));
+            writeLine(buffered, writer, outcome.fold(
+                    error -> Map.of("error", mapToApiError(error).message()),
+                    summary -> Map.of("summary", summary)));
+            buffered.flush();
+        };
+    }
+
+    /**
+     * Streams every user as NDJSON ({@code ?format=ndjson}, default) or CSV ({@code ?format=csv}) with constant
+     * memory: rows come from a database cursor and are written out and detached one at a time.
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> export(@RequestParam(defaultValue = "ndjson") String format) {
+        UserExportWriter writer;
+        try {
+            writer = UserExportWriter.from(format);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+        ObjectWriter json = objectMapper.writerFor(UserResponse.class);
+        StreamingResponseBody body = out -> {
+            OutputStream buffered = new BufferedOutputStream(out, 64 * 1024);
+            writer.writeHeader(buffered);
+            Either<Throwable, Long> outcome = userExportService.exportAll(
+                    user -> writer.writeRow(buffered, json, userMapper.toResponse(user)));
+            if (outcome.isLeft()) {
+                // headers are already sent; abort so the client sees a truncated transfer rather than a short file
+                throw new IOException("User export aborted", outcome.getLeft());
+            }
+            buffered.flush();
+        };
+        return ResponseEntity.ok()
+                .contentType(writer.mediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename(writer.fileName()).build().toString())
+                .body(body);
+    }
+
+    /**
+     * The user with its version as a strong {@code ETag}. A matching {@code If-None-Match} gets a 304, answered from
+     * the cached view or a version-only query without loading the user.
+     */
     @GetMapping("/{id}")
-    public Either<ApiError, UserResponse> get(@PathVariable Long id) {
-        return userService.getById(id)
+    public Either<ApiError, UserResponse> get(@PathVariable Long id, WebRequest webRequest, HttpServletResponse response) {
+        if (webRequest.getHeader(HttpHeaders.IF_NONE_MATCH) != null) {
+            Either<Throwable, Long> version = userService.getVersion(id);
+            if (version.isRight() && webRequest.checkNotModified(etag(version.get()))) {
+                return null;
+            }
+        }
+        return userService.getViewById(id)
+            .peek(view -> response.setHeader(HttpHeaders.ETAG, etag(view.version())))
             .map(userMapper::toResponse)
             .mapLeft(this::mapToApiError);
     }
 
     @GetMapping
-    public Either<ApiError, Page<UserResponse>> list(Pageable pageable) {
-        return userService.getAll(pageable)
+    public Either<ApiError, PageResponse<UserResponse>> list(Pageable pageable) {
+        return userService.getAllViews(pageable)
+            .map(page -> PageResponse.of(page.map(userMapper::toResponse)))
+            .mapLeft(this::mapToApiError);
+    }
+
+    /**
+     * Multi-get: {@code ?ids=3,1,2} (up to 100 ids) returns the users in the requested order and lists unknown ids
+     * under {@code missing}. Cached users answer without a query; the rest load with one IN query.
+     */
+    @GetMapping(params = "ids")
+    public Either<ApiError, BatchResult<UserResponse>> getByIds(@RequestParam List<Long> ids) {
+        return userService.getViewsByIds(ids)
+            .map(batch -> batch.map(userMapper::toResponse))
+            .mapLeft(this::mapToApiError);
+    }
+
+    /**
+     * Keyset pagination: {@code ?limit=20[&sort=id|email|name][&after=<nextCursor>]}. Cost is constant at any depth
+     * because each page seeks past the previous page's last row instead of counting and skipping.
+     */
+    @GetMapping(params = "limit")
+    public Either<ApiError, CursorPage<UserResponse>> listAfter(@RequestParam int limit,
+                                                                @RequestParam(defaultValue = "id") String sort,
+                                                                @RequestParam(required = false) String after) {
+        return Try.of(() -> {
+                    UserCursor.SortKey sortKey = UserCursor.SortKey.from(sort);
+                    return after == null ? UserCursor.first(sortKey) : UserCursor.decode(after, sortKey);
+                })
+            .toEither()
+            .flatMap(cursor -> userService.getPage(cursor, limit))
             .map(page -> page.map(userMapper::toResponse))
             .mapLeft(this::mapToApiError);
     }
 
+    /**
+     * With {@code If-Match: "<version>"} the update only applies while the user is still at that version (412
+     * otherwise); without it, an update that races another one gets a 409. The new version is returned as the ETag.
+     */
     @PutMapping("/{id}")
-    public Either<ApiError, UserResponse> update(@PathVariable Long id, @Valid @RequestBody UserRequest request) {
-        return userService.update(id, request)
+    public Either<ApiError, UserResponse> update(@PathVariable Long id, @Valid @RequestBody UserRequest request,
+                                                 @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                                 HttpServletResponse response) {
+        Long expectedVersion = expectedVersion(ifMatch);
+        Either<Throwable, User> updated = expectedVersion == null
+                ? userService.update(id, request)
+                : userService.update(id, expectedVersion, request);
+        return updated
+            .peek(user -> response.setHeader(HttpHeaders.ETAG, etag(user.getVersion())))
             .map(userMapper::toResponse)
-            .mapLeft(this::mapToApiError);
+            .mapLeft(error -> mapToApiError(error, expectedVersion != null));
     }
 
     @DeleteMapping("/{id}")
     @ResponseStatus(HttpStatus.NO_CONTENT)
-    public Either<ApiError, Void> delete(@PathVariable Long id) {
-        return userService.delete(id)
-            .mapLeft(this::mapToApiError);
+    public Either<ApiError, Void> delete(@PathVariable Long id,
+                                         @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Long expectedVersion = expectedVersion(ifMatch);
+        return (expectedVersion == null ? userService.delete(id) : userService.delete(id, expectedVersion))
+            .mapLeft(error -> mapToApiError(error, expectedVersion != null));
+    }
+
+    private static String etag(long version) {
+        return "\"" + version + "\"";
+    }
+
+    /**
+     * The version an {@code If-Match} header asks for: null when there is no precondition (absent or {@code *}), and
+     * {@link #NO_VERSION} for weak or foreign tags, which never match under the strong comparison If-Match requires.
+     */
+    private static Long expectedVersion(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String tag = ifMatch.trim();
+        if (tag.length() > 2 && tag.startsWith("\"") && tag.endsWith("\"")) {
+            try {
+                return Long.parseLong(tag.substring(1, tag.length() - 1));
+            } catch (NumberFormatException e) {
+                return NO_VERSION;
+            }
+        }
+        return NO_VERSION;
+    }
+
+    private static void writeLine(OutputStream out, ObjectWriter writer, Object value) {
+        try {
+            out.write(writer.writeValueAsBytes(value));
+            out.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private ApiError mapToApiError(Throwable throwable, boolean conditional) {
+        if (throwable instanceof OptimisticLockingFailureException) {
+            return new ApiError(conditional ? HttpStatus.PRECONDITION_FAILED : HttpStatus.CONFLICT,
+                    "User has been modified; fetch it again and retry");
+        }
+        return mapToApiError(throwable);
     }
 
     private ApiError mapToApiError(Throwable throwable) {
@@ -73,6 +255,9 @@ public class UserController {
         if (throwable instanceof NoSuchElementException) {
             return new ApiError(HttpStatus.NOT_FOUND, throwable.getMessage());
         }
+        if (throwable instanceof IllegalArgumentException) {
+            return new ApiError(HttpStatus.BAD_REQUEST, throwable.getMessage());
+        }
         return new ApiError(HttpStatus.INTERNAL_SERVER_ERROR, "An unexpected error occurred");
     }
 }
@@ -0,0 +1,80 @@
+package co.medina.starter.practice.user.api;
+
+import co.medina.starter.practice.user.api.dto.UserResponse;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.springframework.http.MediaType;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Writes exported users one line at a time, as NDJSON or as CSV with a header row.
+ */
+enum UserExportWriter {
+    NDJSON(MediaType.APPLICATION_NDJSON, "ndjson"),
+    CSV(MediaType.parseMediaType(UserImportReader.TEXT_CSV_VALUE + ";charset=UTF-8"), "csv");
+
+    private static final String CSV_HEADER = "id,email,mobileNumber,name,address\n";
+
+    private final MediaType mediaType;
+    private final String extension;
+
+    UserExportWriter(MediaType mediaType, String extension) {
+        this.mediaType = mediaType;
+        this.extension = extension;
+    }
+
+    static UserExportWriter from(String format) {
+        try {
+            return valueOf(format.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unsupported export format: " + format);
+        }
+    }
+
+    MediaType mediaType() {
+        return mediaType;
+    }
+
+    String fileName() {
+        return "users." + extension;
+    }
+
+    void writeHeader(OutputStream out) throws IOException {
+        if (this == CSV) {
+            out.write(CSV_HEADER.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    void writeRow(OutputStream out, ObjectWriter json, UserResponse user) {
+        try {
+            if (this == NDJSON) {
+                out.write(json.writeValueAsBytes(user));
+                out.write('\n');
+            } else {
+                String row = Stream.of(String.valueOf(user.getId()), user.getEmail(), user.getMobileNumber(),
+                                user.getName(), user.getAddress())
+                        .map(UserExportWriter::csvField)
+                        .collect(Collectors.joining(",", "", "\n"));
+                out.write(row.getBytes(StandardCharsets.UTF_8));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String csvField(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
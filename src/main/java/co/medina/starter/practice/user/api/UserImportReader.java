@@ -0,0 +1,157 @@
+package co.medina.starter.practice.user.api;
+
+import co.medina.starter.practice.user.api.dto.UserImportRow;
+import co.medina.starter.practice.user.api.dto.UserRequest;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.stream.Collectors;
+
+/**
+ * Reads bulk import rows lazily, one line at a time, so the request body is never held in memory.
+ * <p>
+ * NDJSON: one {@link UserRequest} object per line. CSV: a header row naming the columns
+ * ({@code email,mobileNumber,name,address}, any order) followed by one row per user; fields may be
+ * double-quoted, but quoted fields cannot span lines. Blank lines are skipped in both formats.
+ */
+final class UserImportReader implements Iterator<UserImportRow> {
+
+    static final String TEXT_CSV_VALUE = "text/csv";
+
+    private static final List<String> CSV_COLUMNS = List.of("email", "mobileNumber", "name", "address");
+
+    private final BufferedReader reader;
+    private final boolean csv;
+    private final ObjectReader jsonReader;
+
+    private Map<String, Integer> csvHeader;
+    private long lineNumber;
+    private UserImportRow next;
+
+    UserImportReader(InputStream body, boolean csv, ObjectMapper objectMapper) {
+        this.reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        this.csv = csv;
+        this.jsonReader = objectMapper.readerFor(UserRequest.class);
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (next == null) {
+            next = readRow();
+        }
+        return next != null;
+    }
+
+    @Override
+    public UserImportRow next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        UserImportRow row = next;
+        next = null;
+        return row;
+    }
+
+    private UserImportRow readRow() {
+        try {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                if (!csv) {
+                    return parseJson(line);
+                }
+                if (csvHeader == null) {
+                    csvHeader = parseHeader(line);
+                    continue;
+                }
+                return parseCsv(line);
+            }
+            return null;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private UserImportRow parseJson(String line) {
+        try {
+            return UserImportRow.parsed(lineNumber, jsonReader.readValue(line));
+        } catch (JsonProcessingException e) {
+            return UserImportRow.unparseable(lineNumber, "Malformed JSON: " + e.getOriginalMessage());
+        }
+    }
+
+    private Map<String, Integer> parseHeader(String line) {
+        List<String> names = splitCsv(line);
+        if (names == null || !names.contains("email") || !names.contains("name")) {
+            throw new IllegalArgumentException("CSV header must name at least the email and name columns");
+        }
+        return CSV_COLUMNS.stream()
+                .filter(names::contains)
+                .collect(Collectors.toMap(column -> column, names::indexOf));
+    }
+
+    private UserImportRow parseCsv(String line) {
+        List<String> fields = splitCsv(line);
+        if (fields == null) {
+            return UserImportRow.unparseable(lineNumber, "Malformed CSV: unterminated quoted field");
+        }
+        return UserImportRow.parsed(lineNumber, new UserRequest(
+                field(fields, "email"), field(fields, "mobileNumber"), field(fields, "name"), field(fields, "address")));
+    }
+
+    private String field(List<String> fields, String column) {
+        Integer index = csvHeader.get(column);
+        if (index == null || index >= fields.size()) {
+            return null;
+        }
+        String value = fields.get(index);
+        return value.isEmpty() ? null : value;
+    }
+
+    /** Splits one CSV line (RFC 4180 quoting); returns null when a quoted field is left open. */
+    static List<String> splitCsv(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString().trim());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            return null;
+        }
+        fields.add(field.toString().trim());
+        return fields;
+    }
+}
@@ -0,0 +1,66 @@
+package co.medina.starter.practice.user.api;
+
+import co.medina.starter.practice.user.api.dto.BatchResult;
+import co.medina.starter.practice.user.api.dto.CursorPage;
+import co.medina.starter.practice.user.api.dto.PageResponse;
+import co.medina.starter.practice.user.api.dto.UserResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.type.TypeFactory;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.lang.NonNull;
+import org.springframework.util.StreamUtils;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+/**
+ * The application's JSON converter. User responses, pages and errors are written with {@link ObjectWriter}s built
+ * once per type, so their root serializer is resolved up front instead of on every response; anything else takes
+ * the regular Jackson path. Output is identical either way.
+ */
+public class UserJsonHttpMessageConverter extends MappingJackson2HttpMessageConverter {
+
+    private final Map<Class<?>, ObjectWriter> writers;
+
+    public UserJsonHttpMessageConverter(ObjectMapper objectMapper) {
+        super(objectMapper);
+        TypeFactory types = objectMapper.getTypeFactory();
+        this.writers = Map.of(
+                UserResponse.class, objectMapper.writerFor(UserResponse.class),
+                PageResponse.class, objectMapper.writerFor(types.constructParametricType(PageResponse.class, UserResponse.class)),
+                CursorPage.class, objectMapper.writerFor(types.constructParametricType(CursorPage.class, UserResponse.class)),
+                BatchResult.class, objectMapper.writerFor(types.constructParametricType(BatchResult.class, UserResponse.class)),
+                ApiError.class, objectMapper.writerFor(ApiError.class));
+    }
+
+    @Override
+    protected void writeInternal(@NonNull Object object, Type type, @NonNull HttpOutputMessage outputMessage)
+            throws IOException, HttpMessageNotWritableException {
+        ObjectWriter writer = writers.get(object.getClass());
+        MediaType contentType = outputMessage.getHeaders().getContentType();
+        boolean utf8 = contentType == null || contentType.getCharset() == null
+                || StandardCharsets.UTF_8.equals(contentType.getCharset());
+        if (writer == null || !utf8 || !isUserContent(object)) {
+            super.writeInternal(object, type, outputMessage);
+            return;
+        }
+        // headers are already set; the generator must not close the servlet stream
+        writer.writeValue(StreamUtils.nonClosing(outputMessage.getBody()), object);
+    }
+
+    /** Pages are only written with the typed writer when they hold user responses (or nothing). */
+    private static boolean isUserContent(Object object) {
+        return switch (object) {
+            case PageResponse<?> page -> page.content().stream().allMatch(UserResponse.class::isInstance);
+            case CursorPage<?> page -> page.content().stream().allMatch(UserResponse.class::isInstance);
+            case BatchResult<?> batch -> batch.content().stream().allMatch(UserResponse.class::isInstance);
+            default -> true;
+        };
+    }
+}
@@ -3,6 +3,7 @@ package co.medina.starter.practice.user.api;
 import co.medina.starter.practice.user.api.dto.UserRequest;
 import co.medina.starter.practice.user.api.dto.UserResponse;
 import co.medina.starter.practice.user.domain.User;
+import co.medina.starter.practice.user.domain.UserView;
 import org.mapstruct.BeanMapping;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
@@ -13,6 +14,8 @@ public interface UserMapper {
 
     UserResponse toResponse(User user);
 
+    UserResponse toResponse(UserView view);
+
     @BeanMapping(unmappedTargetPolicy = ReportingPolicy.IGNORE)
     User toEntity(UserRequest req);
 }
@@ -0,0 +1,14 @@
+package co.medina.starter.practice.user.api.dto;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * A multi-get: the rows found, in the order their ids were requested, and the requested ids that do not exist.
+ */
+public record BatchResult<T>(List<T> content, List<Long> missing) {
+
+    public <R> BatchResult<R> map(Function<? super T, ? extends R> mapper) {
+        return new BatchResult<>(content.stream().<R>map(mapper).toList(), missing);
+    }
+}
@@ -0,0 +1,14 @@
+package co.medina.starter.practice.user.api.dto;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * One keyset page. {@code nextCursor} is null on the last page; no total count is computed.
+ */
+public record CursorPage<T>(List<T> content, String nextCursor) {
+
+    public <R> CursorPage<R> map(Function<? super T, ? extends R> mapper) {
+        return new CursorPage<>(content.stream().<R>map(mapper).toList(), nextCursor);
+    }
+}
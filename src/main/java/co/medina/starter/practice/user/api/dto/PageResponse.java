@@ -0,0 +1,17 @@
+package co.medina.starter.practice.user.api.dto;
+
+import org.springframework.data.domain.Page;
+
+import java.util.List;
+
+/**
+ * One offset page: the rows plus the numbers a client needs to page on. Replaces serializing {@link Page} as-is,
+ * which repeats the request's {@code pageable} and {@code sort} on every response.
+ */
+public record PageResponse<T>(List<T> content, int page, int size, long totalElements, int totalPages) {
+
+    public static <T> PageResponse<T> of(Page<T> page) {
+        return new PageResponse<>(page.getContent(), page.getNumber(), page.getSize(), page.getTotalElements(),
+                page.getTotalPages());
+    }
+}
@@ -0,0 +1,67 @@
+package co.medina.starter.practice.user.api.dto;
+
+import co.medina.starter.practice.user.domain.User;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Locale;
+
+/**
+ * Position in a keyset-paginated user listing: the sort key plus the sort value and id of the last row returned.
+ * Clients only see the opaque {@link #encode() encoded} form.
+ */
+public record UserCursor(SortKey sortKey, String value, Long id) {
+
+    /** Sort keys allowed in cursor mode; each is backed by an index ending in {@code id}. */
+    public enum SortKey {
+        ID, EMAIL, NAME;
+
+        public static SortKey from(String name) {
+            try {
+                return valueOf(name.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unsupported sort key: " + name);
+            }
+        }
+    }
+
+    public static UserCursor first(SortKey sortKey) {
+        return new UserCursor(sortKey, null, null);
+    }
+
+    public static UserCursor after(SortKey sortKey, User last) {
+        String value = switch (sortKey) {
+            case ID -> null;
+            case EMAIL -> last.getEmail();
+            case NAME -> last.getName();
+        };
+        return new UserCursor(sortKey, value, last.getId());
+    }
+
+    public boolean isFirst() {
+        return id == null;
+    }
+
+    public String encode() {
+        String raw = sortKey.name() + "|" + id + "|" + (value == null ? "" : value);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @throws IllegalArgumentException if the cursor is malformed or was issued for a different sort key
+     */
+    public static UserCursor decode(String cursor, SortKey expected) {
+        UserCursor decoded;
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|", 3);
+            SortKey sortKey = SortKey.valueOf(parts[0]);
+            decoded = new UserCursor(sortKey, sortKey == SortKey.ID ? null : parts[2], Long.parseLong(parts[1]));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        if (decoded.sortKey() != expected) {
+            throw new IllegalArgumentException("Cursor was issued for sort=" + decoded.sortKey().name().toLowerCase(Locale.ROOT));
+        }
+        return decoded;
+    }
+}
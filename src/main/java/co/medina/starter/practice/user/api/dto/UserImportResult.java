@@ -0,0 +1,22 @@
+package co.medina.starter.practice.user.api.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record UserImportResult(long line, String email, Status status, Long id, String error) {
+
+    public enum Status { CREATED, DUPLICATE, INVALID }
+
+    public static UserImportResult created(UserImportRow row, Long id) {
+        return new UserImportResult(row.line(), row.request().email(), Status.CREATED, id, null);
+    }
+
+    public static UserImportResult duplicate(UserImportRow row) {
+        return new UserImportResult(row.line(), row.request().email(), Status.DUPLICATE, null, "Email already exists");
+    }
+
+    public static UserImportResult invalid(UserImportRow row, String error) {
+        String email = row.request() == null ? null : row.request().email();
+        return new UserImportResult(row.line(), email, Status.INVALID, null, error);
+    }
+}
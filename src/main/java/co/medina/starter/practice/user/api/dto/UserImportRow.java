@@ -0,0 +1,16 @@
+package co.medina.starter.practice.user.api.dto;
+
+/**
+ * One parsed row of a bulk import body. {@code request} is null when the line could not be parsed,
+ * in which case {@code error} says why.
+ */
+public record UserImportRow(long line, UserRequest request, String error) {
+
+    public static UserImportRow parsed(long line, UserRequest request) {
+        return new UserImportRow(line, request, null);
+    }
+
+    public static UserImportRow unparseable(long line, String error) {
+        return new UserImportRow(line, null, error);
+    }
+}
@@ -0,0 +1,4 @@
+package co.medina.starter.practice.user.api.dto;
+
+public record UserImportSummary(long created, long duplicates, long invalid) {
+}
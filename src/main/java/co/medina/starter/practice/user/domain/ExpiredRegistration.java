@@ -0,0 +1,10 @@
+package co.medina.starter.practice.user.domain;
+
+import java.time.Instant;
+
+/**
+ * Id and expiry of an unverified account past its verification window. The pair is the keyset cursor of the
+ * expiry sweep, in the order of the {@code idx_users_verification_expires_at (verification_expires_at, id)} index.
+ */
+public record ExpiredRegistration(Long id, Instant verificationExpiresAt) {
+}
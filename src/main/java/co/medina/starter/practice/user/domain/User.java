@@ -6,16 +6,23 @@ import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.Index;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 
+import java.time.Instant;
+
 @Entity
 @Table(name = "users", indexes = {
-        @Index(name = "uk_users_email", columnList = "email", unique = true)
+        @Index(name = "uk_users_email", columnList = "email", unique = true),
+        @Index(name = "idx_users_name_id", columnList = "name, id"),
+        @Index(name = "uk_users_verification_token", columnList = "verification_token", unique = true),
+        @Index(name = "idx_users_verification_expires_at", columnList = "verification_expires_at, id")
 })
 @Getter
 @Setter
@@ -24,8 +31,10 @@ import lombok.Setter;
 @Builder
 public class User {
 
+    // pooled sequence instead of IDENTITY so Hibernate can batch inserts (IDENTITY forces one round trip per row)
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "users_seq")
+    @SequenceGenerator(name = "users_seq", sequenceName = "users_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false, unique = true, length = 320)
@@ -43,6 +52,11 @@ public class User {
     @Column(length = 255)
     private String password;
 
+    // bumped to revoke every token issued before the change (checked in claims-only auth mode); the default lets
+    // the column be added to a populated table
+    @Column(name = "token_version", nullable = false, columnDefinition = "int default 0 not null")
+    private int tokenVersion;
+
     // email verification flow
     @Column(name = "email_verified", nullable = false)
     private boolean emailVerified;
@@ -50,6 +64,13 @@ public class User {
     @Column(name = "verification_token", length = 64)
     private String verificationToken;
 
-    @Column(name = "verification_expires_at", length = 40)
-    private String verificationExpiresAt; // ISO-8601 instant as string to keep it simple
+    // only set while the email is unconfirmed
+    @Column(name = "verification_expires_at")
+    private Instant verificationExpiresAt;
+
+    // optimistic lock, also served as the ETag of GET /v1/api/users/{id}; Hibernate bumps it on every update.
+    // The default lets the column be added to a populated table.
+    @Version
+    @Column(nullable = false, columnDefinition = "bigint default 0 not null")
+    private long version;
 }
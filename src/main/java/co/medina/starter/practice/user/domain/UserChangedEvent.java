@@ -0,0 +1,16 @@
+package co.medina.starter.practice.user.domain;
+
+/**
+ * Published whenever a user row is created, updated, confirmed or deleted, so in-memory views of it can be dropped.
+ * {@code previousEmail} is set when the email changed; both emails are null for deletions.
+ */
+public record UserChangedEvent(Long userId, String email, String previousEmail) {
+
+    public static UserChangedEvent of(User user) {
+        return new UserChangedEvent(user.getId(), user.getEmail(), null);
+    }
+
+    public static UserChangedEvent deleted(Long userId) {
+        return new UserChangedEvent(userId, null, null);
+    }
+}
@@ -0,0 +1,8 @@
+package co.medina.starter.practice.user.domain;
+
+/**
+ * Read-only projection of the public user columns. Selected with a JPQL constructor expression, so no entity
+ * is hydrated, no dirty-checking snapshot is kept and the password/verification columns are never fetched.
+ */
+public record UserView(Long id, String email, String mobileNumber, String name, String address, long version) {
+}
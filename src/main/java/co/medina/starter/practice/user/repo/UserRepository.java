@@ -1,12 +1,92 @@
 package co.medina.starter.practice.user.repo;
 
+import co.medina.starter.practice.user.domain.ExpiredRegistration;
 import co.medina.starter.practice.user.domain.User;
+import co.medina.starter.practice.user.domain.UserView;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByEmail(String email);
     boolean existsByEmail(String email);
     Optional<User> findByVerificationToken(String verificationToken);
+
+    @Query("select u.tokenVersion from User u where u.id = :id")
+    Optional<Integer> findTokenVersionById(@Param("id") Long id);
+
+    @Query("select new co.medina.starter.practice.user.domain.UserView(u.id, u.email, u.mobileNumber, u.name, u.address, u.version) "
+            + "from User u where u.id = :id")
+    Optional<UserView> findViewById(@Param("id") Long id);
+
+    // multi-get and coalesced single lookups: one IN query for a batch of ids, in no particular order
+    @Query("select new co.medina.starter.practice.user.domain.UserView(u.id, u.email, u.mobileNumber, u.name, u.address, u.version) "
+            + "from User u where u.id in :ids")
+    List<UserView> findViewsByIdIn(@Param("ids") Collection<Long> ids);
+
+    // revalidation (If-None-Match) compares versions without loading the row's other columns
+    @Query("select u.version from User u where u.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
+
+    @Query(value = "select new co.medina.starter.practice.user.domain.UserView(u.id, u.email, u.mobileNumber, u.name, u.address, u.version) "
+            + "from User u",
+            countQuery = "select count(u) from User u")
+    Page<UserView> findAllViews(Pageable pageable);
+
+    // Keyset (seek) pages for cursor listing: Pageable only carries the row limit, so no count query runs.
+    // Each predicate is served by an index on the sort column (email is unique; name is indexed with id).
+    List<User> findAllBy(Pageable limit);
+
+    @Query("select u from User u where u.id > :id order by u.id")
+    List<User> findPageAfterId(@Param("id") long id, Pageable limit);
+
+    @Query("select u from User u where u.email > :email order by u.email")
+    List<User> findPageAfterEmail(@Param("email") String email, Pageable limit);
+
+    @Query("select u from User u where u.name > :name or (u.name = :name and u.id > :id) order by u.name, u.id")
+    List<User> findPageAfterName(@Param("name") String name, @Param("id") long id, Pageable limit);
+
+    // Full-table export: rows are pulled from a server-side cursor in fetch-size chunks instead of materialized at once
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select u from User u order by u.id")
+    Stream<User> streamAllBy();
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select u.email from User u")
+    Stream<String> streamAllEmails();
+
+    @Query("select u.email from User u where u.email in :emails")
+    List<String> findExistingEmails(@Param("emails") Collection<String> emails);
+
+    // Expired registrations are walked in (verification_expires_at, id) order, the order of their index, seeking past
+    // the last pair of the previous chunk; one chunk per transaction. Confirmed users have no expiry
+    @Query("select new co.medina.starter.practice.user.domain.ExpiredRegistration(u.id, u.verificationExpiresAt) "
+            + "from User u where u.emailVerified = false and u.verificationExpiresAt < :now "
+            + "and (u.verificationExpiresAt > :afterExpiresAt or (u.verificationExpiresAt = :afterExpiresAt and u.id > :afterId)) "
+            + "order by u.verificationExpiresAt, u.id")
+    List<ExpiredRegistration> findExpiredUnverified(@Param("now") Instant now, @Param("afterExpiresAt") Instant afterExpiresAt,
+                                                    @Param("afterId") long afterId, Pageable limit);
+
+    // re-checks the status so a confirmation that lands mid-chunk is never deleted
+    @Modifying
+    @Query("delete from User u where u.id in :ids and u.emailVerified = false")
+    int deleteUnverifiedByIdIn(@Param("ids") Collection<Long> ids);
 }
@@ -0,0 +1,96 @@
+package co.medina.starter.practice.user.service;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free Bloom filter over strings. Bits are only ever set, so concurrent {@link #put} and
+ * {@link #mightContain} calls need no coordination. Uses double hashing of one 64-bit hash to derive the
+ * k bit positions.
+ */
+final class BloomFilter {
+
+    private final AtomicLongArray words;
+    private final long bitCount;
+    private final int hashFunctions;
+    private final LongAdder insertions = new LongAdder();
+
+    private BloomFilter(long bitCount, int hashFunctions) {
+        int wordCount = (int) Math.min(Integer.MAX_VALUE - 8, (bitCount + 63) / 64);
+        this.words = new AtomicLongArray(wordCount);
+        this.bitCount = (long) wordCount * 64;
+        this.hashFunctions = hashFunctions;
+    }
+
+    /**
+     * Sizes the filter so that {@code expectedInsertions} entries give a false-positive probability of {@code fpp}.
+     */
+    static BloomFilter create(long expectedInsertions, double fpp) {
+        if (expectedInsertions < 1 || fpp <= 0 || fpp >= 1) {
+            throw new IllegalArgumentException("expectedInsertions must be positive and fpp in (0, 1)");
+        }
+        long bits = (long) Math.ceil(-expectedInsertions * Math.log(fpp) / (Math.log(2) * Math.log(2)));
+        int k = Math.max(1, (int) Math.round((double) bits / expectedInsertions * Math.log(2)));
+        return new BloomFilter(Math.max(64, bits), k);
+    }
+
+    void put(String value) {
+        long h1 = hash(value);
+        long h2 = mix(h1) | 1;
+        for (int i = 0; i < hashFunctions; i++) {
+            long bit = Math.floorMod(h1 + i * h2, bitCount);
+            long mask = 1L << bit;
+            words.getAndAccumulate((int) (bit >>> 6), mask, (word, m) -> word | m);
+        }
+        insertions.increment();
+    }
+
+    boolean mightContain(String value) {
+        long h1 = hash(value);
+        long h2 = mix(h1) | 1;
+        for (int i = 0; i < hashFunctions; i++) {
+            long bit = Math.floorMod(h1 + i * h2, bitCount);
+            if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** False-positive probability given the number of insertions so far. */
+    double expectedFpp() {
+        double fill = 1 - Math.exp(-hashFunctions * (double) insertions.sum() / bitCount);
+        return Math.pow(fill, hashFunctions);
+    }
+
+    long insertions() {
+        return insertions.sum();
+    }
+
+    long bitCount() {
+        return bitCount;
+    }
+
+    int hashFunctions() {
+        return hashFunctions;
+    }
+
+    // 64-bit FNV-1a over the UTF-16 code units, finished with a MurmurHash3 mix for avalanche
+    private static long hash(String value) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            h ^= value.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        return mix(h);
+    }
+
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,119 @@
+package co.medina.starter.practice.user.service;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * Groups single-key loads that arrive within {@code window} of each other into one batch load, DataLoader-style.
+ * The first key of a batch schedules its flush; a batch that reaches {@code maxBatch} keys is flushed at once. A
+ * batch that ends up with one key uses the single-key loader, so a lone request runs the same query as without
+ * coalescing.
+ * <p>
+ * The loaders of the request that opened a batch load the whole batch, so callers must pass equivalent loaders.
+ */
+final class CoalescingLoader<K, V> {
+
+    private final Duration window;
+    private final int maxBatch;
+    private final Executor executor;
+    // a lock rather than synchronized: enqueuing runs on virtual threads and must not pin them
+    private final ReentrantLock lock = new ReentrantLock();
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder keys = new LongAdder();
+    private Batch pending;
+
+    CoalescingLoader(Duration window, int maxBatch, Executor executor) {
+        this.window = window;
+        this.maxBatch = maxBatch;
+        this.executor = executor;
+    }
+
+    /**
+     * @param loader      loads one key
+     * @param batchLoader loads several keys; keys missing from its result complete with null
+     */
+    CompletableFuture<V> load(K key, Function<K, V> loader, Function<Set<K>, Map<K, V>> batchLoader) {
+        Batch full = null;
+        CompletableFuture<V> future;
+        lock.lock();
+        try {
+            if (pending == null) {
+                Batch opened = new Batch(loader, batchLoader);
+                pending = opened;
+                CompletableFuture.delayedExecutor(window.toNanos(), TimeUnit.NANOSECONDS, executor)
+                        .execute(() -> flush(opened));
+            }
+            future = pending.futures.computeIfAbsent(key, k -> new CompletableFuture<>());
+            if (pending.futures.size() >= maxBatch) {
+                full = pending;
+                pending = null;
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (full != null) {
+            executor.execute(full::run);
+        }
+        return future;
+    }
+
+    /** Batches loaded so far. */
+    long loads() {
+        return loads.sum();
+    }
+
+    /** Keys loaded so far; divided by {@link #loads()} this is the average batch size. */
+    long keys() {
+        return keys.sum();
+    }
+
+    private void flush(Batch batch) {
+        lock.lock();
+        try {
+            if (pending != batch) {
+                // already flushed because it filled up
+                return;
+            }
+            pending = null;
+        } finally {
+            lock.unlock();
+        }
+        batch.run();
+    }
+
+    private final class Batch {
+        private final Function<K, V> loader;
+        private final Function<Set<K>, Map<K, V>> batchLoader;
+        // guarded by the lock while pending; owned by the flushing thread afterwards
+        private final Map<K, CompletableFuture<V>> futures = new LinkedHashMap<>();
+
+        Batch(Function<K, V> loader, Function<Set<K>, Map<K, V>> batchLoader) {
+            this.loader = loader;
+            this.batchLoader = batchLoader;
+        }
+
+        void run() {
+            loads.increment();
+            keys.add(futures.size());
+            try {
+                if (futures.size() == 1) {
+                    Map.Entry<K, CompletableFuture<V>> only = futures.entrySet().iterator().next();
+                    only.getValue().complete(loader.apply(only.getKey()));
+                    return;
+                }
+                Map<K, V> loaded = batchLoader.apply(futures.keySet());
+                futures.forEach((key, future) -> future.complete(loaded.get(key)));
+            } catch (RuntimeException e) {
+                futures.values().forEach(future -> future.completeExceptionally(e));
+            }
+        }
+    }
+}
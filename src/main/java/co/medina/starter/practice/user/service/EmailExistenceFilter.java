@@ -0,0 +1,195 @@
+package co.medina.starter.practice.user.service;
+
+import co.medina.starter.practice.datasource.ReadWriteRoutingDataSource;
+import co.medina.starter.practice.user.domain.UserChangedEvent;
+import co.medina.starter.practice.user.repo.UserRepository;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Locale;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * In-memory Bloom filter of normalized (trimmed, lower-cased) user emails in front of {@code existsByEmail}.
+ * A negative answer is definitive, so lookups for new emails never reach the database; a positive answer is
+ * confirmed by the database.
+ * <p>
+ * The filter is built by a streaming scan once the application is ready; until then every lookup goes to the
+ * database. Committed user changes add the new email. Bloom filters cannot forget, so renamed and deleted
+ * emails stay as false positives until the count of such stale entries passes {@code rebuild-stale-ratio} of the
+ * filter, at which point it is rebuilt in the background and swapped in.
+ * <p>
+ * The scan reads the primary even when a replica is configured: a lagging replica would leave out emails committed
+ * before the scan, and a filter missing an email answers "does not exist" for it.
+ */
+@Component
+public class EmailExistenceFilter implements MeterBinder {
+
+    private static final Logger log = LoggerFactory.getLogger(EmailExistenceFilter.class);
+
+    private static final Executor BUILDER = ReadWriteRoutingDataSource.virtualLoader("email-filter-build");
+
+    private final UserRepository userRepository;
+    private final TransactionOperations readOnlyTransaction;
+    private final long expectedInsertions;
+    private final double fpp;
+    private final double rebuildStaleRatio;
+
+    private volatile BloomFilter filter;
+    private volatile BloomFilter building;
+    private volatile boolean ready;
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+    private final AtomicLong staleEntries = new AtomicLong();
+
+    private final LongAdder negatives = new LongAdder();
+    private final LongAdder positives = new LongAdder();
+    private final LongAdder falsePositives = new LongAdder();
+
+    @Autowired
+    public EmailExistenceFilter(UserRepository userRepository,
+                                PlatformTransactionManager transactionManager,
+                                @Value("${app.users.email-filter.expected-insertions:1000000}") long expectedInsertions,
+                                @Value("${app.users.email-filter.fpp:0.01}") double fpp,
+                                @Value("${app.users.email-filter.rebuild-stale-ratio:0.2}") double rebuildStaleRatio) {
+        this(userRepository, readOnly(transactionManager), expectedInsertions, fpp, rebuildStaleRatio);
+    }
+
+    EmailExistenceFilter(UserRepository userRepository, TransactionOperations readOnlyTransaction,
+                         long expectedInsertions, double fpp, double rebuildStaleRatio) {
+        this.userRepository = userRepository;
+        this.readOnlyTransaction = readOnlyTransaction;
+        this.expectedInsertions = expectedInsertions;
+        this.fpp = fpp;
+        this.rebuildStaleRatio = rebuildStaleRatio;
+        this.filter = BloomFilter.create(expectedInsertions, fpp);
+    }
+
+    /**
+     * Whether a user with this email exists. Only calls {@code database} when the filter cannot rule the email out.
+     */
+    public boolean exists(String email, Predicate<String> database) {
+        if (ready && !filter.mightContain(normalize(email))) {
+            negatives.increment();
+            return false;
+        }
+        boolean exists = database.test(email);
+        if (ready) {
+            positives.increment();
+            if (!exists) {
+                falsePositives.increment();
+            }
+        }
+        return exists;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        BUILDER.execute(this::rebuild);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        if (event.email() != null) {
+            add(event.email());
+        }
+        boolean renamed = event.previousEmail() != null && !event.previousEmail().equalsIgnoreCase(event.email());
+        boolean deleted = event.email() == null && event.previousEmail() == null;
+        if ((renamed || deleted) && ready
+                && staleEntries.incrementAndGet() > filter.insertions() * rebuildStaleRatio) {
+            BUILDER.execute(this::rebuild);
+        }
+    }
+
+    /**
+     * Scans every email into a fresh filter and swaps it in. Emails committed during the scan are added to both
+     * filters by {@link #onUserChanged}, so the new filter never misses one.
+     */
+    void rebuild() {
+        if (!rebuilding.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            long users = userRepository.count();
+            BloomFilter next = BloomFilter.create(Math.max(expectedInsertions, users * 2), fpp);
+            building = next;
+            readOnlyTransaction.executeWithoutResult(status -> {
+                try (Stream<String> emails = userRepository.streamAllEmails()) {
+                    emails.forEach(email -> next.put(normalize(email)));
+                }
+            });
+            filter = next;
+            staleEntries.set(0);
+            ready = true;
+            log.info("[EmailFilter] Built from {} emails: {} bits, {} hash functions, expected fpp {}",
+                    next.insertions(), next.bitCount(), next.hashFunctions(), String.format("%.4f", next.expectedFpp()));
+        } catch (RuntimeException e) {
+            log.warn("[EmailFilter] Build failed, lookups keep going to the database: {}", e.getMessage());
+        } finally {
+            building = null;
+            rebuilding.set(false);
+        }
+    }
+
+    private void add(String email) {
+        String normalized = normalize(email);
+        filter.put(normalized);
+        BloomFilter next = building;
+        if (next != null) {
+            next.put(normalized);
+        }
+    }
+
+    @Override
+    public void bindTo(@NonNull MeterRegistry registry) {
+        Gauge.builder("users.email_filter.expected_fpp", this, f -> f.filter.expectedFpp())
+                .description("False-positive probability of the email Bloom filter at its current fill")
+                .register(registry);
+        Gauge.builder("users.email_filter.observed_fpp", this, EmailExistenceFilter::observedFpp)
+                .description("Share of lookups for absent emails that the filter could not rule out")
+                .register(registry);
+        Gauge.builder("users.email_filter.insertions", this, f -> f.filter.insertions()).register(registry);
+        FunctionCounter.builder("users.email_filter.lookups", negatives, LongAdder::sum)
+                .tag("result", "negative").register(registry);
+        FunctionCounter.builder("users.email_filter.lookups", positives, LongAdder::sum)
+                .tag("result", "positive").register(registry);
+        FunctionCounter.builder("users.email_filter.false_positives", falsePositives, LongAdder::sum).register(registry);
+    }
+
+    double observedFpp() {
+        long absent = negatives.sum() + falsePositives.sum();
+        return absent == 0 ? 0 : (double) falsePositives.sum() / absent;
+    }
+
+    private static String normalize(String email) {
+        return email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static TransactionOperations readOnly(PlatformTransactionManager transactionManager) {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setReadOnly(true);
+        return template;
+    }
+}
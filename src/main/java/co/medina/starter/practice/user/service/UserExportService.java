@@ -0,0 +1,13 @@
+package co.medina.starter.practice.user.service;
+
+import co.medina.starter.practice.user.domain.User;
+import io.vavr.control.Either;
+
+import java.util.function.Consumer;
+
+public interface UserExportService {
+    /**
+     * Hands every user, in id order, to {@code sink} and returns how many were exported.
+     */
+    Either<Throwable, Long> exportAll(Consumer<User> sink);
+}
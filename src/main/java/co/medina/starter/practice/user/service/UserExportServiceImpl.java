@@ -0,0 +1,44 @@
+package co.medina.starter.practice.user.service;
+
+import co.medina.starter.practice.user.domain.User;
+import co.medina.starter.practice.user.repo.UserRepository;
+import io.vavr.control.Either;
+import io.vavr.control.Try;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Iterator;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Streams the users table through a read-only cursor. Each entity is detached once written, so the persistence
+ * context (and the heap) stays flat no matter how many rows the table holds.
+ */
+@Service
+@RequiredArgsConstructor
+public class UserExportServiceImpl implements UserExportService {
+
+    private final UserRepository userRepository;
+    private final EntityManager entityManager;
+
+    @Override
+    @Transactional(readOnly = true)
+    public Either<Throwable, Long> exportAll(Consumer<User> sink) {
+        return Try.of(() -> {
+            long exported = 0;
+            try (Stream<User> users = userRepository.streamAllBy()) {
+                Iterator<User> iterator = users.iterator();
+                while (iterator.hasNext()) {
+                    User user = iterator.next();
+                    sink.accept(user);
+                    entityManager.detach(user);
+                    exported++;
+                }
+            }
+            return exported;
+        }).toEither();
+    }
+}
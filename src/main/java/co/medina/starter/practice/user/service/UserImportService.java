@@ -0,0 +1,16 @@
+package co.medina.starter.practice.user.service;
+
+import co.medina.starter.practice.user.api.dto.UserImportResult;
+import co.medina.starter.practice.user.api.dto.UserImportRow;
+import co.medina.starter.practice.user.api.dto.UserImportSummary;
+import io.vavr.control.Either;
+
+import java.util.Iterator;
+import java.util.function.Consumer;
+
+public interface UserImportService {
+    /**
+     * Creates users from {@code rows}, reporting the outcome of every row to {@code results} as soon as it is known.
+     */
+    Either<Throwable, UserImportSummary> importUsers(Iterator<UserImportRow> rows, Consumer<UserImportResult> results);
+}
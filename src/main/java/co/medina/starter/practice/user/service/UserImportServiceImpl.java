@@ -0,0 +1,167 @@
+package co.medina.starter.practice.user.service;
+
+import co.medina.starter.practice.user.api.dto.UserImportResult;
+import co.medina.starter.practice.user.api.dto.UserImportRow;
+import co.medina.starter.practice.user.api.dto.UserImportSummary;
+import co.medina.starter.practice.user.api.dto.UserRequest;
+import co.medina.starter.practice.user.domain.User;
+import co.medina.starter.practice.user.domain.UserChangedEvent;
+import co.medina.starter.practice.user.repo.UserRepository;
+import io.vavr.control.Either;
+import io.vavr.control.Try;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Bulk user creation. Rows are validated and deduplicated in memory, then checked against the database and
+ * inserted one chunk at a time; each chunk is a single transaction whose inserts Hibernate sends as JDBC batches
+ * ({@code hibernate.jdbc.batch_size}), so the persistence context never holds more than one chunk.
+ */
+@Service
+public class UserImportServiceImpl implements UserImportService {
+
+    private final UserRepository userRepository;
+    private final Validator validator;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int chunkSize;
+
+    public UserImportServiceImpl(UserRepository userRepository,
+                                 Validator validator,
+                                 ApplicationEventPublisher eventPublisher,
+                                 @Value("${app.users.import.chunk-size:1000}") int chunkSize) {
+        this.userRepository = userRepository;
+        this.validator = validator;
+        this.eventPublisher = eventPublisher;
+        this.chunkSize = chunkSize;
+    }
+
+    @Override
+    public Either<Throwable, UserImportSummary> importUsers(Iterator<UserImportRow> rows, Consumer<UserImportResult> results) {
+        return Try.of(() -> {
+            Tally tally = new Tally(results);
+            Set<String> seenEmails = new HashSet<>();
+            List<UserImportRow> chunk = new ArrayList<>(chunkSize);
+            while (rows.hasNext()) {
+                UserImportRow row = rows.next();
+                String error = validate(row);
+                if (error != null) {
+                    tally.accept(UserImportResult.invalid(row, error));
+                } else if (!seenEmails.add(row.request().email())) {
+                    tally.accept(UserImportResult.duplicate(row));
+                } else {
+                    chunk.add(row);
+                    if (chunk.size() == chunkSize) {
+                        insertChunk(chunk, tally);
+                        chunk.clear();
+                    }
+                }
+            }
+            if (!chunk.isEmpty()) {
+                insertChunk(chunk, tally);
+            }
+            return tally.summary();
+        }).toEither();
+    }
+
+    private String validate(UserImportRow row) {
+        if (row.request() == null) {
+            return row.error();
+        }
+        Set<ConstraintViolation<UserRequest>> violations = validator.validate(row.request());
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(violation -> violation.getPropertyPath() + " " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.joining(", "));
+    }
+
+    private void insertChunk(List<UserImportRow> chunk, Tally tally) {
+        Set<String> existing = new HashSet<>(userRepository.findExistingEmails(
+                chunk.stream().map(row -> row.request().email()).toList()));
+
+        List<UserImportRow> fresh = new ArrayList<>(chunk.size());
+        List<User> users = new ArrayList<>(chunk.size());
+        for (UserImportRow row : chunk) {
+            if (existing.contains(row.request().email())) {
+                tally.accept(UserImportResult.duplicate(row));
+            } else {
+                fresh.add(row);
+                users.add(toUser(row.request()));
+            }
+        }
+        if (users.isEmpty()) {
+            return;
+        }
+
+        try {
+            List<User> saved = userRepository.saveAll(users);
+            for (int i = 0; i < saved.size(); i++) {
+                created(fresh.get(i), saved.get(i), tally);
+            }
+        } catch (DataIntegrityViolationException e) {
+            // a concurrent writer took one of the emails after the check; fall back to row-by-row for this chunk
+            for (int i = 0; i < users.size(); i++) {
+                User user = users.get(i);
+                user.setId(null);
+                try {
+                    created(fresh.get(i), userRepository.save(user), tally);
+                } catch (DataIntegrityViolationException duplicate) {
+                    tally.accept(UserImportResult.duplicate(fresh.get(i)));
+                }
+            }
+        }
+    }
+
+    private void created(UserImportRow row, User saved, Tally tally) {
+        eventPublisher.publishEvent(UserChangedEvent.of(saved));
+        tally.accept(UserImportResult.created(row, saved.getId()));
+    }
+
+    private static User toUser(UserRequest request) {
+        return User.builder()
+                .email(request.email())
+                .mobileNumber(request.mobileNumber())
+                .name(request.name())
+                .address(request.address())
+                .build();
+    }
+
+    private static final class Tally implements Consumer<UserImportResult> {
+        private final Consumer<UserImportResult> downstream;
+        private long created;
+        private long duplicates;
+        private long invalid;
+
+        Tally(Consumer<UserImportResult> downstream) {
+            this.downstream = downstream;
+        }
+
+        @Override
+        public void accept(UserImportResult result) {
+            switch (result.status()) {
+                case CREATED -> created++;
+                case DUPLICATE -> duplicates++;
+                case INVALID -> invalid++;
+            }
+            downstream.accept(result);
+        }
+
+        UserImportSummary summary() {
+            return new UserImportSummary(created, duplicates, invalid);
+        }
+    }
+}
@@ -1,15 +1,31 @@
 package co.medina.starter.practice.user.service;
 
+import co.medina.starter.practice.user.api.dto.BatchResult;
+import co.medina.starter.practice.user.api.dto.CursorPage;
+import co.medina.starter.practice.user.api.dto.UserCursor;
 import co.medina.starter.practice.user.api.dto.UserRequest;
 import co.medina.starter.practice.user.domain.User;
+import co.medina.starter.practice.user.domain.UserView;
 import io.vavr.control.Either;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
+import java.util.List;
+
 public interface UserService {
     Either<Throwable, User> create(UserRequest request);
     Either<Throwable, User> getById(Long id);
     Either<Throwable, Page<User>> getAll(Pageable pageable);
+    Either<Throwable, UserView> getViewById(Long id);
+    /** The views of {@code ids} in request order (duplicates collapsed), plus the ids that do not exist. */
+    Either<Throwable, BatchResult<UserView>> getViewsByIds(List<Long> ids);
+    Either<Throwable, Long> getVersion(Long id);
+    Either<Throwable, Page<UserView>> getAllViews(Pageable pageable);
+    Either<Throwable, CursorPage<User>> getPage(UserCursor cursor, int limit);
     Either<Throwable, User> update(Long id, UserRequest request);
+    /** Like {@link #update(Long, UserRequest)}, but fails unless the user is still at {@code expectedVersion}. */
+    Either<Throwable, User> update(Long id, long expectedVersion, UserRequest request);
     Either<Throwable, Void> delete(Long id);
+    /** Like {@link #delete(Long)}, but fails unless the user is still at {@code expectedVersion}. */
+    Either<Throwable, Void> delete(Long id, long expectedVersion);
 }
@@ -1,30 +1,56 @@
 package co.medina.starter.practice.user.service;
 
+import co.medina.starter.practice.user.api.dto.BatchResult;
+import co.medina.starter.practice.user.api.dto.CursorPage;
+import co.medina.starter.practice.user.api.dto.UserCursor;
 import co.medina.starter.practice.user.api.dto.UserRequest;
 import co.medina.starter.practice.user.domain.User;
+import co.medina.starter.practice.user.domain.UserChangedEvent;
+import co.medina.starter.practice.user.domain.UserView;
 import co.medina.starter.practice.user.repo.UserRepository;
+import io.micrometer.core.annotation.Timed;
 import io.vavr.control.Either;
 import io.vavr.control.Try;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.interceptor.TransactionAspectSupport;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.Set;
 
 @Service
 @RequiredArgsConstructor
 @Transactional
+@Timed(value = "users.service", description = "UserService calls, tagged by method")
 public class UserServiceImpl implements UserService {
 
+    static final int MAX_PAGE_LIMIT = 100;
+    static final int MAX_BATCH_IDS = 100;
+
     private final UserRepository userRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final UserViewCache userViewCache;
+    private final EmailExistenceFilter emailExistenceFilter;
 
     @Override
     public Either<Throwable, User> create(UserRequest request) {
         return Try.run(() -> {
-            if (userRepository.existsByEmail(request.email())) {
+            if (emailExistenceFilter.exists(request.email(), userRepository::existsByEmail)) {
                 throw new DataIntegrityViolationException("Email already exists");
             }
         }).map(__ -> User.builder()
@@ -34,6 +60,7 @@ public class UserServiceImpl implements UserService {
                 .address(request.address())
                 .build())
             .map(userRepository::save)
+            .peek(saved -> eventPublisher.publishEvent(UserChangedEvent.of(saved)))
             .toEither();
     }
 
@@ -51,22 +78,119 @@ public class UserServiceImpl implements UserService {
         return Try.of(() -> userRepository.findAll(pageable)).toEither();
     }
 
+    @Override
+    // no transaction here: cache hits never touch the database, and misses load through the repository's own
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public Either<Throwable, UserView> getViewById(Long id) {
+        return Try.of(() -> userViewCache.get(id, userRepository::findViewById, userRepository::findViewsByIdIn)
+            .orElseThrow(() -> new NoSuchElementException("User not found: " + id)))
+            .toEither();
+    }
+
+    @Override
+    // like getViewById: cached ids answer without a query, and all misses load with one IN query
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public Either<Throwable, BatchResult<UserView>> getViewsByIds(List<Long> ids) {
+        return Try.of(() -> {
+            Set<Long> unique = new LinkedHashSet<>(ids);
+            if (unique.isEmpty() || unique.size() > MAX_BATCH_IDS || unique.contains(null)) {
+                throw new IllegalArgumentException("ids must hold between 1 and " + MAX_BATCH_IDS + " user ids");
+            }
+            Map<Long, Optional<UserView>> views = userViewCache.getAll(unique, userRepository::findViewsByIdIn);
+            List<UserView> found = new ArrayList<>(unique.size());
+            List<Long> missing = new ArrayList<>();
+            for (Long id : unique) {
+                views.getOrDefault(id, Optional.empty()).ifPresentOrElse(found::add, () -> missing.add(id));
+            }
+            return new BatchResult<>(found, missing);
+        }).toEither();
+    }
+
+    @Override
+    // like getViewById: a cached view answers without a query, otherwise only the version column is read
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public Either<Throwable, Long> getVersion(Long id) {
+        return Try.of(() -> userViewCache.getIfPresent(id)
+            .map(UserView::version)
+            .or(() -> userRepository.findVersionById(id))
+            .orElseThrow(() -> new NoSuchElementException("User not found: " + id)))
+            .toEither();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Either<Throwable, Page<UserView>> getAllViews(Pageable pageable) {
+        return Try.of(() -> userRepository.findAllViews(pageable)).toEither();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Either<Throwable, CursorPage<User>> getPage(UserCursor cursor, int limit) {
+        return Try.of(() -> {
+            if (limit < 1 || limit > MAX_PAGE_LIMIT) {
+                throw new IllegalArgumentException("limit must be between 1 and " + MAX_PAGE_LIMIT);
+            }
+            // one extra row tells whether another page exists without counting
+            List<User> rows = seek(cursor, PageRequest.ofSize(limit + 1));
+            if (rows.size() <= limit) {
+                return new CursorPage<>(rows, null);
+            }
+            List<User> content = rows.subList(0, limit);
+            return new CursorPage<>(content, UserCursor.after(cursor.sortKey(), content.get(limit - 1)).encode());
+        }).toEither();
+    }
+
+    private List<User> seek(UserCursor cursor, Pageable limit) {
+        if (cursor.isFirst()) {
+            Sort sort = switch (cursor.sortKey()) {
+                case ID -> Sort.by("id");
+                case EMAIL -> Sort.by("email");
+                case NAME -> Sort.by("name", "id");
+            };
+            return userRepository.findAllBy(PageRequest.of(0, limit.getPageSize(), sort));
+        }
+        return switch (cursor.sortKey()) {
+            case ID -> userRepository.findPageAfterId(cursor.id(), limit);
+            case EMAIL -> userRepository.findPageAfterEmail(cursor.value(), limit);
+            case NAME -> userRepository.findPageAfterName(cursor.value(), cursor.id(), limit);
+        };
+    }
+
     @Override
     public Either<Throwable, User> update(Long id, UserRequest request) {
+        return applyUpdate(id, null, request);
+    }
+
+    @Override
+    public Either<Throwable, User> update(Long id, long expectedVersion, UserRequest request) {
+        return applyUpdate(id, expectedVersion, request);
+    }
+
+    private Either<Throwable, User> applyUpdate(Long id, Long expectedVersion, UserRequest request) {
         return getById(id)
             .flatMap(existing -> Try.run(() -> {
-                    if (!existing.getEmail().equals(request.email()) && userRepository.existsByEmail(request.email())) {
+                    checkVersion(existing, expectedVersion);
+                    if (!existing.getEmail().equals(request.email()) && emailExistenceFilter.exists(request.email(), userRepository::existsByEmail)) {
                         throw new DataIntegrityViolationException("Email already exists");
                     }
                 }).map(__ -> existing).toEither()
             )
-            .map(user -> {
+            .flatMap(user -> Try.of(() -> {
+                String previousEmail = user.getEmail();
+                if (!previousEmail.equals(request.email())) {
+                    // the token subject changes, so tokens issued for the old email are revoked
+                    user.setTokenVersion(user.getTokenVersion() + 1);
+                }
                 user.setEmail(request.email());
                 user.setMobileNumber(request.mobileNumber());
                 user.setName(request.name());
                 user.setAddress(request.address());
-                return userRepository.save(user);
-            });
+                User saved = userRepository.save(user);
+                // flushed here so an update that lost a race (stale @Version) comes back as a Left, not a failed commit
+                userRepository.flush();
+                eventPublisher.publishEvent(new UserChangedEvent(saved.getId(), saved.getEmail(), previousEmail));
+                return saved;
+            }).onFailure(UserServiceImpl::rollbackOnly).toEither());
     }
 
     @Override
@@ -76,6 +200,33 @@ public class UserServiceImpl implements UserService {
                 throw new NoSuchElementException("User not found: " + id);
             }
             userRepository.deleteById(id);
+            eventPublisher.publishEvent(UserChangedEvent.deleted(id));
         }).toEither();
     }
+
+    @Override
+    public Either<Throwable, Void> delete(Long id, long expectedVersion) {
+        return getById(id)
+            .flatMap(user -> Try.run(() -> {
+                checkVersion(user, expectedVersion);
+                // removes the loaded row, so the delete is also guarded by its version
+                userRepository.delete(user);
+                userRepository.flush();
+                eventPublisher.publishEvent(UserChangedEvent.deleted(id));
+            }).onFailure(UserServiceImpl::rollbackOnly).toEither());
+    }
+
+    private static void checkVersion(User user, Long expectedVersion) {
+        if (expectedVersion != null && user.getVersion() != expectedVersion) {
+            throw new OptimisticLockingFailureException("User " + user.getId() + " has been modified");
+        }
+    }
+
+    // a failed flush leaves the persistence context unusable: roll back quietly so the Left reaches the caller
+    // instead of an UnexpectedRollbackException at commit
+    private static void rollbackOnly(Throwable failure) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+        }
+    }
 }
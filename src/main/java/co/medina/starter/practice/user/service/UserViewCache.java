@@ -0,0 +1,158 @@
+package co.medina.starter.practice.user.service;
+
+import co.medina.starter.practice.datasource.ReadWriteRoutingDataSource;
+import co.medina.starter.practice.user.domain.UserChangedEvent;
+import co.medina.starter.practice.user.domain.UserView;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+
+/**
+ * Read-through cache of {@link UserView} by id for {@code GET /v1/api/users/{id}}. Misses (404s) are cached
+ * too, for the much shorter {@code negative-ttl}, so repeated lookups of a missing id don't reach the database.
+ * Every committed change to a user (create, update, delete, registration, confirmation) evicts its id.
+ * <p>
+ * Single-id misses that arrive within {@code coalesce-window} of each other are loaded together with one IN query
+ * (see {@link CoalescingLoader}); multi-gets load all their misses with one IN query.
+ * <p>
+ * Loads run on virtual threads for the same reason as in {@code UserDetailsCache}: a synchronous load would
+ * hold a ConcurrentHashMap monitor, pinning the request thread for the whole query.
+ */
+@Component
+public class UserViewCache implements MeterBinder {
+
+    static final String CACHE_NAME = "users.by-id";
+
+    private static final Executor LOADER = ReadWriteRoutingDataSource.virtualLoader("user-view-load");
+
+    private final AsyncCache<Long, Optional<UserView>> cache;
+    // null when coalescing is disabled
+    private final CoalescingLoader<Long, Optional<UserView>> coalescer;
+
+    public UserViewCache(@Value("${app.users.cache.ttl:5m}") Duration ttl,
+                         @Value("${app.users.cache.negative-ttl:5s}") Duration negativeTtl,
+                         @Value("${app.users.cache.max-size:10000}") long maxSize,
+                         @Value("${app.users.cache.coalesce-window:2ms}") Duration coalesceWindow,
+                         @Value("${app.users.cache.coalesce-max-batch:100}") int coalesceMaxBatch) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new PositiveOrNegativeTtl(ttl, negativeTtl))
+                .executor(LOADER)
+                .recordStats()
+                .buildAsync();
+        this.coalescer = coalesceWindow.isZero() ? null : new CoalescingLoader<>(coalesceWindow, coalesceMaxBatch, LOADER);
+    }
+
+    /**
+     * @param loader      loads one view, used when coalescing is off or a coalesced batch holds only this id
+     * @param batchLoader loads the views of several ids with one query
+     */
+    public Optional<UserView> get(Long id, Function<Long, Optional<UserView>> loader,
+                                  Function<Collection<Long>, List<UserView>> batchLoader) {
+        if (coalescer == null) {
+            return join(cache.get(id, loader));
+        }
+        return join(cache.get(id, (key, executor) ->
+                coalescer.load(key, loader, ids -> index(ids, batchLoader.apply(ids)))));
+    }
+
+    /** The views of {@code ids}, cached or loaded with one {@code batchLoader} call for all misses; empty when missing. */
+    public Map<Long, Optional<UserView>> getAll(Collection<Long> ids, Function<Collection<Long>, List<UserView>> batchLoader) {
+        return join(cache.getAll(ids, (missing, executor) -> {
+            Set<Long> keys = Set.copyOf(missing);
+            return CompletableFuture.supplyAsync(() -> index(keys, batchLoader.apply(keys)), executor);
+        }));
+    }
+
+    /** The cached view, without loading it; empty when the id is not cached or is cached as missing. */
+    public Optional<UserView> getIfPresent(Long id) {
+        CompletableFuture<Optional<UserView>> cached = cache.getIfPresent(id);
+        if (cached == null || !cached.isDone() || cached.isCompletedExceptionally()) {
+            return Optional.empty();
+        }
+        return cached.join();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        cache.synchronous().invalidate(event.userId());
+    }
+
+    @Override
+    public void bindTo(@NonNull MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache.synchronous(), CACHE_NAME);
+        if (coalescer != null) {
+            FunctionCounter.builder("users.cache.coalesced.loads", coalescer, CoalescingLoader::loads)
+                    .description("Coalesced loads of single-id cache misses")
+                    .register(registry);
+            FunctionCounter.builder("users.cache.coalesced.keys", coalescer, CoalescingLoader::keys)
+                    .description("Ids loaded by coalesced loads; divided by the loads, the average batch size")
+                    .register(registry);
+        }
+    }
+
+    // every requested id gets an entry, so misses are cached as not found too
+    private static Map<Long, Optional<UserView>> index(Collection<Long> ids, List<UserView> views) {
+        Map<Long, Optional<UserView>> byId = new HashMap<>();
+        ids.forEach(id -> byId.put(id, Optional.empty()));
+        views.forEach(view -> byId.put(view.id(), Optional.of(view)));
+        return byId;
+    }
+
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private static final class PositiveOrNegativeTtl implements Expiry<Long, Optional<UserView>> {
+
+        private final long ttlNanos;
+        private final long negativeTtlNanos;
+
+        PositiveOrNegativeTtl(Duration ttl, Duration negativeTtl) {
+            this.ttlNanos = ttl.toNanos();
+            this.negativeTtlNanos = negativeTtl.toNanos();
+        }
+
+        @Override
+        public long expireAfterCreate(@NonNull Long id, @NonNull Optional<UserView> view, long currentTime) {
+            return view.isPresent() ? ttlNanos : negativeTtlNanos;
+        }
+
+        @Override
+        public long expireAfterUpdate(@NonNull Long id, @NonNull Optional<UserView> view, long currentTime, long currentDuration) {
+            return expireAfterCreate(id, view, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(@NonNull Long id, @NonNull Optional<UserView> view, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package co.medina.starter.practice.web;
+
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import org.springframework.lang.NonNull;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+/** Request whose (small) body has been read up front so filters can inspect it and it can still be read downstream. */
+public final class BufferedBodyRequest extends HttpServletRequestWrapper {
+
+    private final byte[] body;
+
+    private BufferedBodyRequest(HttpServletRequest request, byte[] body) {
+        super(request);
+        this.body = body;
+    }
+
+    /** Buffers the body, or returns null when its length is unknown or above {@code maxBytes}. */
+    public static BufferedBodyRequest of(HttpServletRequest request, int maxBytes) throws IOException {
+        int length = request.getContentLength();
+        if (length < 0 || length > maxBytes) {
+            return null;
+        }
+        return new BufferedBodyRequest(request, request.getInputStream().readNBytes(length));
+    }
+
+    public byte[] body() {
+        return body;
+    }
+
+    @Override
+    public ServletInputStream getInputStream() {
+        ByteArrayInputStream in = new ByteArrayInputStream(body);
+        return new ServletInputStream() {
+            @Override
+            public boolean isFinished() {
+                return in.available() == 0;
+            }
+
+            @Override
+            public boolean isReady() {
+                return true;
+            }
+
+            // the whole body is already in memory, so the listener is told at once that data is there and when it is
+            // all read
+            @Override
+            public void setReadListener(ReadListener readListener) {
+                try {
+                    if (!isFinished()) {
+                        readListener.onDataAvailable();
+                    }
+                    if (isFinished()) {
+                        readListener.onAllDataRead();
+                    }
+                } catch (IOException e) {
+                    readListener.onError(e);
+                }
+            }
+
+            @Override
+            public int read() {
+                return in.read();
+            }
+
+            @Override
+            public int read(@NonNull byte[] b, int off, int len) {
+                return in.read(b, off, len);
+            }
+        };
+    }
+
+    @Override
+    public BufferedReader getReader() {
+        Charset charset = getCharacterEncoding() == null ? StandardCharsets.UTF_8 : Charset.forName(getCharacterEncoding());
+        return new BufferedReader(new InputStreamReader(new ByteArrayInputStream(body), charset));
+    }
+}
@@ -0,0 +1,273 @@
+package co.medina.starter.practice.web;
+
+import co.medina.starter.practice.datasource.ClientContext;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.lang.NonNull;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Replays the stored response when a client retries a POST with the same {@code Idempotency-Key}, so a retried
+ * create or registration does not run the duplicate check, BCrypt or the verification email again.
+ * <p>
+ * Keys are scoped to the client (authenticated user, else remote address) and route. The first request claims the
+ * key; retries that arrive while it is still running wait up to {@code in-flight-timeout} for its outcome instead of
+ * running in parallel. Completed responses below 500 are kept for {@code ttl} in a size-bounded Caffeine cache; 5xx
+ * responses (a full hashing pool, a database hiccup) are dropped so the next retry runs again. Reusing a key with a
+ * different body gets a 422.
+ * <p>
+ * Registered after the Spring Security chain in {@code IdempotencyConfig}, so the authenticated user is known. Requests
+ * without an {@code Authorization} header are scoped to their remote address, which is known before security runs,
+ * so {@link #anonymousReplayFilter()} replays their completed responses ahead of the rate limiter: a retried
+ * registration gets its stored 201 back instead of spending a token and getting 429.
+ */
+public class IdempotencyFilter extends OncePerRequestFilter implements MeterBinder {
+
+    public static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+    public static final String REPLAYED = "Idempotent-Replayed";
+
+    private static final AntPathMatcher PATH_MATCHER = new AntPathMatcher();
+    private static final int MAX_KEY_LENGTH = 255;
+    // response headers worth replaying besides Content-Type; security headers are written again on every response
+    private static final List<String> REPLAYED_HEADERS = List.of(HttpHeaders.LOCATION, HttpHeaders.ETAG);
+
+    private final List<String> paths;
+    private final Cache<String, Entry> entries;
+    private final Duration inFlightTimeout;
+    private final int maxBody;
+    private final LongAdder executed = new LongAdder();
+    private final LongAdder replayed = new LongAdder();
+    private final LongAdder inFlight = new LongAdder();
+    private final LongAdder mismatched = new LongAdder();
+
+    public IdempotencyFilter(IdempotencyProperties properties) {
+        this.paths = properties.paths();
+        this.entries = Caffeine.newBuilder()
+                .maximumSize(properties.maxEntries())
+                .expireAfterWrite(properties.ttl())
+                .build();
+        this.inFlightTimeout = properties.inFlightTimeout();
+        this.maxBody = (int) Math.min(Integer.MAX_VALUE, properties.maxBody().toBytes());
+    }
+
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        if (!HttpMethod.POST.matches(request.getMethod()) || request.getHeader(IDEMPOTENCY_KEY) == null) {
+            return true;
+        }
+        String path = path(request);
+        return paths.stream().noneMatch(pattern -> PATH_MATCHER.match(pattern, path));
+    }
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response,
+                                    @NonNull FilterChain filterChain) throws ServletException, IOException {
+        String key = request.getHeader(IDEMPOTENCY_KEY).trim();
+        if (key.isEmpty() || key.length() > MAX_KEY_LENGTH) {
+            reject(response, HttpStatus.BAD_REQUEST, "Idempotency-Key must be 1 to 255 characters");
+            return;
+        }
+        if (request.getContentLength() < 0) {
+            reject(response, HttpStatus.LENGTH_REQUIRED, "Requests with an Idempotency-Key need a Content-Length");
+            return;
+        }
+        BufferedBodyRequest buffered = BufferedBodyRequest.of(request, maxBody);
+        if (buffered == null) {
+            reject(response, HttpStatus.PAYLOAD_TOO_LARGE, "Request body too large for an Idempotency-Key");
+            return;
+        }
+
+        String client = ClientContext.current();
+        String storeKey = storeKey(client != null ? client : "ip:" + request.getRemoteAddr(), request, key);
+        Entry own = new Entry(fingerprint(buffered.body()));
+        while (true) {
+            Entry existing = entries.asMap().putIfAbsent(storeKey, own);
+            if (existing == null) {
+                break;
+            }
+            if (!existing.fingerprint.equals(own.fingerprint)) {
+                mismatched.increment();
+                reject(response, HttpStatus.UNPROCESSABLE_ENTITY, "Idempotency-Key was already used for a different request");
+                return;
+            }
+            StoredResponse stored;
+            try {
+                stored = existing.outcome.get(inFlightTimeout.toNanos(), TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                inFlight.increment();
+                reject(response, HttpStatus.CONFLICT, "A request with this Idempotency-Key is still in progress");
+                return;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ServletException("Interrupted while waiting for the original request", e);
+            } catch (ExecutionException e) {
+                stored = null;
+            }
+            if (stored != null) {
+                replayed.increment();
+                replay(stored, response);
+                return;
+            }
+            // the original ended without a replayable response and released the key; claim it and run this one
+        }
+
+        ContentCachingResponseWrapper capture = new ContentCachingResponseWrapper(response);
+        StoredResponse stored = null;
+        try {
+            filterChain.doFilter(buffered, capture);
+            executed.increment();
+            if (capture.getStatus() < 500) {
+                stored = StoredResponse.of(capture);
+            }
+        } finally {
+            if (stored == null) {
+                entries.asMap().remove(storeKey, own);
+            }
+            own.outcome.complete(stored);
+        }
+        capture.copyBodyToResponse();
+    }
+
+    /**
+     * A filter sharing this store that replays completed responses for anonymous requests. It only answers when a
+     * stored response for the same key and body exists; everything else, including mismatches and in-flight keys, is
+     * left to this filter.
+     */
+    public OncePerRequestFilter anonymousReplayFilter() {
+        return new AnonymousReplay();
+    }
+
+    @Override
+    public void bindTo(@NonNull MeterRegistry registry) {
+        counter(registry, "executed", executed);
+        counter(registry, "replayed", replayed);
+        counter(registry, "in_flight", inFlight);
+        counter(registry, "mismatch", mismatched);
+        Gauge.builder("http.idempotency.entries", entries, Cache::estimatedSize)
+                .description("Idempotency keys held, in flight or completed")
+                .register(registry);
+    }
+
+    private static void counter(MeterRegistry registry, String outcome, LongAdder adder) {
+        FunctionCounter.builder("http.idempotency.requests", adder, LongAdder::sum)
+                .description("Requests carrying an Idempotency-Key, by outcome")
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+
+    private static void replay(StoredResponse stored, HttpServletResponse response) throws IOException {
+        response.setStatus(stored.status());
+        if (stored.contentType() != null) {
+            response.setContentType(stored.contentType());
+        }
+        stored.headers().forEach(response::setHeader);
+        response.setHeader(REPLAYED, "true");
+        response.setContentLength(stored.body().length);
+        response.getOutputStream().write(stored.body());
+    }
+
+    private static void reject(HttpServletResponse response, HttpStatus status, String message) throws IOException {
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.getWriter().write("{\"message\":\"" + message + "\"}");
+    }
+
+    private static String storeKey(String client, HttpServletRequest request, String key) {
+        return client + ' ' + path(request) + ' ' + key;
+    }
+
+    private static String path(HttpServletRequest request) {
+        return request.getRequestURI().substring(request.getContextPath().length());
+    }
+
+    private static String fingerprint(byte[] body) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(body));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private final class AnonymousReplay extends OncePerRequestFilter {
+
+        @Override
+        protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+            return request.getHeader(HttpHeaders.AUTHORIZATION) != null || IdempotencyFilter.this.shouldNotFilter(request);
+        }
+
+        @Override
+        protected void doFilterInternal(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response,
+                                        @NonNull FilterChain filterChain) throws ServletException, IOException {
+            String key = request.getHeader(IDEMPOTENCY_KEY).trim();
+            Entry entry = entries.getIfPresent(storeKey("ip:" + request.getRemoteAddr(), request, key));
+            // the body is only read when there is something to compare it with
+            BufferedBodyRequest buffered = entry == null || request.getContentLength() < 0
+                    ? null
+                    : BufferedBodyRequest.of(request, maxBody);
+            if (buffered == null) {
+                filterChain.doFilter(request, response);
+                return;
+            }
+            StoredResponse stored = entry.fingerprint.equals(fingerprint(buffered.body())) ? entry.outcome.getNow(null) : null;
+            if (stored != null) {
+                replayed.increment();
+                replay(stored, response);
+                return;
+            }
+            filterChain.doFilter(buffered, response);
+        }
+    }
+
+    private static final class Entry {
+        private final String fingerprint;
+        // completed with the stored response, or with null when there is nothing to replay
+        private final CompletableFuture<StoredResponse> outcome = new CompletableFuture<>();
+
+        Entry(String fingerprint) {
+            this.fingerprint = fingerprint;
+        }
+    }
+
+    private record StoredResponse(int status, String contentType, Map<String, String> headers, byte[] body) {
+
+        static StoredResponse of(ContentCachingResponseWrapper response) {
+            Map<String, String> headers = new LinkedHashMap<>();
+            for (String name : REPLAYED_HEADERS) {
+                String value = response.getHeader(name);
+                if (value != null) {
+                    headers.put(name, value);
+                }
+            }
+            return new StoredResponse(response.getStatus(), response.getContentType(), headers,
+                    response.getContentAsByteArray());
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package co.medina.starter.practice.web;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * {@code Idempotency-Key} handling for {@link IdempotencyFilter}, bound from {@code app.idempotency.*}.
+ *
+ * @param paths           Ant patterns (request path without the context path) whose POSTs honour the header
+ * @param ttl             how long a completed response is replayed for, counted from the first request
+ * @param maxEntries      upper bound on stored responses across all clients
+ * @param inFlightTimeout how long a retry waits for the original request to finish before getting a 409
+ * @param maxBody         largest request body accepted together with an {@code Idempotency-Key}
+ */
+@ConfigurationProperties(prefix = "app.idempotency")
+public record IdempotencyProperties(@DefaultValue("true") boolean enabled,
+                                    List<String> paths,
+                                    @DefaultValue("24h") Duration ttl,
+                                    @DefaultValue("100000") long maxEntries,
+                                    @DefaultValue("10s") Duration inFlightTimeout,
+                                    @DefaultValue("64KB") DataSize maxBody) {
+
+    public IdempotencyProperties {
+        paths = paths == null ? List.of() : List.copyOf(paths);
+    }
+}
@@ -0,0 +1,40 @@
+-- Schema as of the first versioned migration. Databases created earlier by ddl-auto=update are baselined at this
+-- version (spring.flyway.baseline-on-migrate), so this script only runs on empty databases.
+
+create sequence users_seq start with 1 increment by 50;
+
+create table users (
+    id                      bigint                      not null,
+    email                   varchar(320)                not null,
+    mobile_number           varchar(32),
+    name                    varchar(120)                not null,
+    address                 varchar(500),
+    password                varchar(255),
+    token_version           integer       default 0     not null,
+    email_verified          boolean       default false not null,
+    verification_token      varchar(64),
+    verification_expires_at timestamp(6) with time zone,
+    version                 bigint        default 0     not null,
+    constraint pk_users primary key (id)
+);
+
+create unique index uk_users_email on users (email);
+create index idx_users_name_id on users (name, id);
+create unique index uk_users_verification_token on users (verification_token);
+create index idx_users_verification_expires_at on users (verification_expires_at, id);
+
+create table email_outbox (
+    id              bigint generated by default as identity,
+    recipient       varchar(320)                not null,
+    subject         varchar(200)                not null,
+    body            varchar(4000)               not null,
+    status          varchar(16)                 not null,
+    attempts        integer                     not null,
+    next_attempt_at timestamp(6) with time zone not null,
+    created_at      timestamp(6) with time zone not null,
+    sent_at         timestamp(6) with time zone,
+    last_error      varchar(500),
+    constraint pk_email_outbox primary key (id)
+);
+
+create index idx_email_outbox_status_next on email_outbox (status, next_attempt_at);
@@ -0,0 +1,6 @@
+-- users.id moved from IDENTITY to the pooled users_seq (allocation size 50). On a database created by
+-- ddl-auto=update the sequence may be missing, or start at 1 below ids that already exist.
+-- Hibernate hands out the 50 ids up to each value it draws, so the next value must be at least max(id) + 51.
+create sequence if not exists users_seq start with 1 increment by 50;
+
+alter sequence users_seq restart with (select coalesce(max(id), 0) + 51 from users) increment by 50;
@@ -0,0 +1,5 @@
+-- Dispatchers claim outbox rows (status SENDING) before sending them, so several instances never send the same row.
+alter table email_outbox add column if not exists claimed_by varchar(36);
+alter table email_outbox add column if not exists claimed_at timestamp(6) with time zone;
+
+create index if not exists idx_email_outbox_claimed_by on email_outbox (claimed_by);
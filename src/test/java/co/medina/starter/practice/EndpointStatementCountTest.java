@@ -0,0 +1,196 @@
+package co.medina.starter.practice;
+
+import co.medina.starter.practice.observability.SqlTelemetry;
+import co.medina.starter.practice.user.domain.User;
+import co.medina.starter.practice.user.repo.UserRepository;
+import co.medina.starter.practice.user.service.EmailExistenceFilter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static co.medina.starter.practice.support.SqlStatements.assertStatementCount;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Exact JDBC statement counts per endpoint, against the real H2 schema. A change in any of these numbers is either
+ * an intended data-access change (update the number) or an N+1 regression.
+ */
+@SpringBootTest(properties = {
+        // keep background work from issuing statements while a test is counting
+        "app.mail.outbox.poll-interval=1h",
+        "app.registration.cleanup.enabled=false",
+        "app.users.email-filter.rebuild-stale-ratio=1000",
+        "app.rate-limit.enabled=false"
+})
+@AutoConfigureMockMvc
+class EndpointStatementCountTest {
+
+    private static final String PASSWORD = "ChangeMe123!";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private SqlTelemetry telemetry;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EmailExistenceFilter emailExistenceFilter;
+
+    private Long userId;
+    private Long otherUserId;
+
+    @BeforeEach
+    void setup() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!emailExistenceFilter.isReady() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(emailExistenceFilter.isReady()).isTrue();
+        // also draws the first block of users_seq, so counted inserts never include a sequence call
+        userId = userRepository.save(User.builder().email(uniqueEmail()).name("Fixture").build()).getId();
+        otherUserId = userRepository.save(User.builder().email(uniqueEmail()).name("Fixture").build()).getId();
+    }
+
+    @Test
+    void getById_queriesOnce_thenServesFromCache() throws Exception {
+        assertStatementCount(telemetry, 1, () -> perform(get("/v1/api/users/" + userId)));
+        assertStatementCount(telemetry, 0, () -> perform(get("/v1/api/users/" + userId)));
+    }
+
+    @Test
+    void getById_revalidation_readsOnlyTheVersion_thenNothingOnceCached() throws Exception {
+        assertStatementCount(telemetry, 1, () -> revalidate(userId, "\"0\""));
+        perform(get("/v1/api/users/" + userId));
+        assertStatementCount(telemetry, 0, () -> revalidate(userId, "\"0\""));
+    }
+
+    @Test
+    void multiGet_oneInQuery_thenServesFromCache() throws Exception {
+        String ids = otherUserId + "," + userId + "," + (Long.MAX_VALUE - userId);
+        assertStatementCount(telemetry, 1, () -> perform(get("/v1/api/users?ids=" + ids)));
+        assertStatementCount(telemetry, 0, () -> perform(get("/v1/api/users?ids=" + ids)));
+    }
+
+    @Test
+    void list_pageQueryPlusCount() throws Exception {
+        assertStatementCount(telemetry, 2, () -> perform(get("/v1/api/users?page=0&size=1")));
+    }
+
+    @Test
+    void list_cursorPageSkipsCount() throws Exception {
+        assertStatementCount(telemetry, 1, () -> perform(get("/v1/api/users?limit=5")));
+    }
+
+    @Test
+    void create_insertsOnly() throws Exception {
+        assertStatementCount(telemetry, 1, () -> perform(post("/v1/api/users").content(json(userBody(uniqueEmail())))));
+    }
+
+    @Test
+    void update_loadsThenUpdates() throws Exception {
+        String email = userRepository.findById(userId).orElseThrow().getEmail();
+
+        assertStatementCount(telemetry, 2, () -> perform(put("/v1/api/users/" + userId).content(json(userBody(email)))));
+    }
+
+    @Test
+    void conditionalUpdate_loadsThenUpdatesWithVersionCheck() throws Exception {
+        String email = userRepository.findById(userId).orElseThrow().getEmail();
+
+        assertStatementCount(telemetry, 2, () -> perform(put("/v1/api/users/" + userId)
+                .header(HttpHeaders.IF_MATCH, "\"0\"").content(json(userBody(email)))));
+    }
+
+    @Test
+    void conditionalDelete_loadsThenDeletes() throws Exception {
+        assertStatementCount(telemetry, 2, () -> perform(delete("/v1/api/users/" + userId).header(HttpHeaders.IF_MATCH, "\"0\"")));
+    }
+
+    @Test
+    void delete_checksLoadsAndDeletes() throws Exception {
+        assertStatementCount(telemetry, 3, () -> perform(delete("/v1/api/users/" + userId)));
+    }
+
+    @Test
+    void register_insertsUserAndOutboxRow() throws Exception {
+        assertStatementCount(telemetry, 2, () -> register(uniqueEmail()));
+    }
+
+    @Test
+    void confirm_selectsByTokenThenUpdates() throws Exception {
+        String email = uniqueEmail();
+        register(email);
+        String token = userRepository.findByEmail(email).orElseThrow().getVerificationToken();
+
+        assertStatementCount(telemetry, 2, () -> perform(get("/v1/auth/confirm?token=" + token)));
+    }
+
+    @Test
+    void login_loadsUserOnce() throws Exception {
+        String email = uniqueEmail();
+        register(email);
+        perform(get("/v1/auth/confirm?token=" + userRepository.findByEmail(email).orElseThrow().getVerificationToken()));
+
+        assertStatementCount(telemetry, 1, () -> perform(post("/v1/auth/login").content(json(Map.of("email", email, "password", PASSWORD)))));
+        assertStatementCount(telemetry, 0, () -> perform(post("/v1/auth/login").content(json(Map.of("email", email, "password", PASSWORD)))));
+    }
+
+    @Test
+    void checkEmail_onlyQueriesWhenFilterCannotRuleOut() throws Exception {
+        String email = uniqueEmail();
+        register(email);
+
+        assertStatementCount(telemetry, 1, () -> perform(post("/v1/auth/check-email").content(json(Map.of("email", email, "password", PASSWORD)))));
+        assertStatementCount(telemetry, 0, () -> perform(post("/v1/auth/check-email").content(json(Map.of("email", uniqueEmail(), "password", PASSWORD)))));
+    }
+
+    private void register(String email) throws Exception {
+        perform(post("/v1/auth/register").content(json(Map.of("email", email, "password", PASSWORD, "name", "Reg",
+                "mobileNumber", "3001234567", "address", "123 Main St"))));
+    }
+
+    private void perform(MockHttpServletRequestBuilder request) throws Exception {
+        mockMvc.perform(request.contentType(MediaType.APPLICATION_JSON).with(user("admin@example.com")))
+                .andExpect(status().is2xxSuccessful());
+    }
+
+    private void revalidate(Long id, String etag) throws Exception {
+        mockMvc.perform(get("/v1/api/users/" + id).header(HttpHeaders.IF_NONE_MATCH, etag).with(user("admin@example.com")))
+                .andExpect(status().isNotModified());
+    }
+
+    private String json(Object value) throws Exception {
+        return objectMapper.writeValueAsString(value);
+    }
+
+    private static Map<String, String> userBody(String email) {
+        return Map.of("email", email, "mobileNumber", "1234567890", "name", "John Doe", "address", "742 Evergreen Terrace");
+    }
+
+    private static String uniqueEmail() {
+        return "sql-" + UUID.randomUUID() + "@example.com";
+    }
+}
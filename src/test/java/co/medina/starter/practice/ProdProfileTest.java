@@ -0,0 +1,80 @@
+package co.medina.starter.practice;
+
+import co.medina.starter.practice.mail.domain.OutboxEmail;
+import co.medina.starter.practice.mail.domain.OutboxStatus;
+import co.medina.starter.practice.mail.repo.OutboxEmailRepository;
+import co.medina.starter.practice.user.domain.User;
+import co.medina.starter.practice.user.repo.UserRepository;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+import org.springdoc.webmvc.api.OpenApiWebMvcResource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.core.env.Environment;
+import org.springframework.data.rest.webmvc.config.RepositoryRestMvcConfiguration;
+import org.springframework.integration.context.IntegrationContextUtils;
+import org.springframework.test.context.ActiveProfiles;
+import org.thymeleaf.spring6.view.ThymeleafViewResolver;
+
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The prod profile boots without the auto-configurations the API does not use, on a schema built by the Flyway
+ * migrations alone.
+ */
+@SpringBootTest(properties = {
+        // a database of its own, so no other test context's ddl-auto=update can fill gaps in the migrations
+        "spring.datasource.url=jdbc:h2:mem:prod-profile;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "app.mail.outbox.poll-interval=1h",
+        "app.registration.cleanup.enabled=false"
+})
+@ActiveProfiles("prod")
+class ProdProfileTest {
+
+    @Autowired
+    private ApplicationContext context;
+
+    @Autowired
+    private Environment environment;
+
+    @Autowired
+    private Flyway flyway;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private OutboxEmailRepository outboxEmailRepository;
+
+    @Test
+    void unusedAutoConfigurationsAreExcluded() {
+        assertThat(context.getBeanNamesForType(RepositoryRestMvcConfiguration.class)).isEmpty();
+        assertThat(context.getBeanNamesForType(ThymeleafViewResolver.class)).isEmpty();
+        assertThat(context.containsBean(IntegrationContextUtils.ERROR_CHANNEL_BEAN_NAME)).isFalse();
+        assertThat(context.containsBean("h2Console")).isFalse();
+        assertThat(context.getBeanNamesForType(OpenApiWebMvcResource.class)).isEmpty();
+    }
+
+    @Test
+    void readinessProbeIsEnabled() {
+        assertThat(environment.getProperty("management.endpoint.health.probes.enabled", Boolean.class)).isTrue();
+    }
+
+    @Test
+    void migrationsCreateTheSchemaTheEntitiesUse() {
+        assertThat(flyway.info().pending()).isEmpty();
+
+        User user = userRepository.save(User.builder().email("prod-schema@example.com").name("Prod")
+                .verificationToken("token").verificationExpiresAt(Instant.now()).build());
+        assertThat(userRepository.findViewById(user.getId())).hasValueSatisfying(view -> assertThat(view.version()).isZero());
+        assertThat(userRepository.findTokenVersionById(user.getId())).contains(0);
+
+        OutboxEmail email = outboxEmailRepository.save(OutboxEmail.builder().recipient("prod-schema@example.com")
+                .subject("Subject").body("Body").status(OutboxStatus.PENDING).nextAttemptAt(Instant.now())
+                .createdAt(Instant.now()).build());
+        assertThat(outboxEmailRepository.findById(email.getId())).isPresent();
+    }
+}
@@ -1,5 +1,6 @@
 package co.medina.starter.practice.auth;
 
+import co.medina.starter.practice.security.PasswordHashingRejectedException;
 import co.medina.starter.practice.user.api.EitherResponseHandler;
 import co.medina.starter.practice.user.domain.User;
 import co.medina.starter.practice.user.repo.UserRepository;
@@ -13,6 +14,7 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.http.MediaType;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.DisabledException;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
@@ -23,6 +25,7 @@ import org.springframework.test.web.servlet.MockMvc;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
@@ -53,6 +56,9 @@ class AuthControllerTest {
     @MockitoBean
     private UserDetailsService userDetailsService;
 
+    @MockitoBean
+    private co.medina.starter.practice.security.TokenVersionService tokenVersionService;
+
     @Test
     @DisplayName("POST /auth/register - 201 Created on success")
     void register_shouldReturn201_onSuccess() throws Exception {
@@ -130,6 +136,23 @@ class AuthControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.token").value("abc123"))
                 .andExpect(jsonPath("$.tokenType").value("Bearer"));
+
+        // the user row is loaded once, inside authenticate()
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    @DisplayName("POST /auth/login - 401 Unauthorized when email is not verified")
+    void login_shouldReturn401_whenEmailNotVerified() throws Exception {
+        var request = LoginRequest.builder().email("a@b.com").password("p").build();
+
+        given(authenticationManager.authenticate(any())).willThrow(new DisabledException("User is disabled"));
+
+        mockMvc.perform(post("/v1/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isUnauthorized())
+                .andExpect(jsonPath("$.message").value("Invalid credentials"));
     }
 
     @Test
@@ -159,4 +182,19 @@ class AuthControllerTest {
                 .andExpect(status().isInternalServerError())
                 .andExpect(jsonPath("$.message").value("An unexpected error occurred"));
     }
+
+    @Test
+    @DisplayName("POST /auth/login - 503 Service Unavailable when hashing queue is full")
+    void login_shouldReturn503_whenHashingSaturated() throws Exception {
+        var request = LoginRequest.builder().email("a@b.com").password("p").build();
+
+        given(authenticationManager.authenticate(any()))
+                .willThrow(new PasswordHashingRejectedException("Password hashing capacity exhausted"));
+
+        mockMvc.perform(post("/v1/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(jsonPath("$.message").value("Password hashing capacity exhausted"));
+    }
 }
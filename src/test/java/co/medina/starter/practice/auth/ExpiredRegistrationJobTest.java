@@ -0,0 +1,96 @@
+package co.medina.starter.practice.auth;
+
+import co.medina.starter.practice.user.domain.ExpiredRegistration;
+import co.medina.starter.practice.user.domain.User;
+import co.medina.starter.practice.user.domain.UserChangedEvent;
+import co.medina.starter.practice.user.repo.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+class ExpiredRegistrationJobTest {
+
+    private static final Instant NOW = Instant.parse("2025-01-01T00:00:00Z");
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private EmailService emailService;
+
+    private AutoCloseable mocks;
+
+    @BeforeEach
+    void setup() {
+        mocks = MockitoAnnotations.openMocks(this);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        if (mocks != null) {
+            mocks.close();
+        }
+    }
+
+    @Test
+    void purge_walksChunksByExpiryAndIdCursor() {
+        ExpiredRegistrationJob job = job(ExpiredRegistrationJob.Action.PURGE);
+        Instant early = NOW.minusSeconds(300);
+        Instant late = NOW.minusSeconds(60);
+        given(userRepository.findExpiredUnverified(eq(NOW), eq(Instant.EPOCH), eq(0L), any(Pageable.class)))
+                .willReturn(List.of(new ExpiredRegistration(2L, early), new ExpiredRegistration(1L, late)));
+        given(userRepository.findExpiredUnverified(eq(NOW), eq(late), eq(1L), any(Pageable.class)))
+                .willReturn(List.of(new ExpiredRegistration(5L, late)));
+        given(userRepository.deleteUnverifiedByIdIn(List.of(2L, 1L))).willReturn(2);
+        given(userRepository.deleteUnverifiedByIdIn(List.of(5L))).willReturn(1);
+
+        assertThat(job.processExpired(NOW)).isEqualTo(3);
+
+        verify(eventPublisher).publishEvent(UserChangedEvent.deleted(5L));
+        // a short chunk ends the sweep without another query
+        verify(userRepository, never()).findExpiredUnverified(eq(NOW), eq(late), eq(5L), any(Pageable.class));
+    }
+
+    @Test
+    void renotify_issuesFreshTokenAndQueuesEmail() {
+        ExpiredRegistrationJob job = job(ExpiredRegistrationJob.Action.RENOTIFY);
+        User expired = User.builder().id(1L).email("a@b.com").name("A")
+                .verificationToken("old").verificationExpiresAt(NOW.minusSeconds(60)).build();
+        User confirmedMeanwhile = User.builder().id(2L).email("c@d.com").name("C").emailVerified(true).build();
+        given(userRepository.findExpiredUnverified(eq(NOW), eq(Instant.EPOCH), eq(0L), any(Pageable.class)))
+                .willReturn(List.of(new ExpiredRegistration(1L, NOW.minusSeconds(60)), new ExpiredRegistration(2L, NOW.minusSeconds(60))));
+        given(userRepository.findAllById(List.of(1L, 2L))).willReturn(List.of(expired, confirmedMeanwhile));
+
+        assertThat(job.processExpired(NOW)).isEqualTo(1);
+
+        assertThat(expired.getVerificationToken()).isNotEqualTo("old");
+        assertThat(expired.getVerificationExpiresAt()).isEqualTo(NOW.plus(VerificationTokens.TTL));
+        verify(emailService).sendVerificationEmail(eq("a@b.com"), startsWith("http://app/v1/auth/confirm?token="));
+        verify(emailService, never()).sendVerificationEmail(eq("c@d.com"), any());
+        verify(userRepository, never()).deleteUnverifiedByIdIn(any());
+    }
+
+    private ExpiredRegistrationJob job(ExpiredRegistrationJob.Action action) {
+        return new ExpiredRegistrationJob(userRepository, TransactionOperations.withoutTransaction(), eventPublisher,
+                emailService, "http://app", action, 2);
+    }
+}
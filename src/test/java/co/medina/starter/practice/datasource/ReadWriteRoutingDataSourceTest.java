@@ -0,0 +1,115 @@
+package co.medina.starter.practice.datasource;
+
+import com.github.benmanes.caffeine.cache.Ticker;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs against two separate in-memory H2 databases, each with a marker row naming it.
+ */
+class ReadWriteRoutingDataSourceTest {
+
+    private final AtomicLong nanos = new AtomicLong();
+    private JdbcTemplate jdbc;
+    private TransactionTemplate writes;
+    private TransactionTemplate reads;
+
+    @BeforeEach
+    void setup() {
+        DataSource primary = database("rw_primary");
+        DataSource replica = database("rw_replica");
+        ReadWriteRoutingDataSource routing = new ReadWriteRoutingDataSource(primary, replica, Duration.ofSeconds(5), 100, nanos::get);
+        DataSource dataSource = new LazyConnectionDataSourceProxy(routing);
+
+        jdbc = new JdbcTemplate(dataSource);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        writes = new TransactionTemplate(transactionManager);
+        reads = new TransactionTemplate(transactionManager);
+        reads.setReadOnly(true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void routesByTransactionReadOnlyFlag() {
+        assertThat(reads.execute(status -> server())).isEqualTo("replica");
+        assertThat(writes.execute(status -> server())).isEqualTo("primary");
+        // outside a transaction (e.g. schema management) always the primary
+        assertThat(server()).isEqualTo("primary");
+    }
+
+    @Test
+    void pinsWritingClientToPrimary_untilLagToleranceExpires() {
+        actAs("10.0.0.1");
+        writes.executeWithoutResult(status -> jdbc.update("update marker set touched = touched + 1"));
+
+        assertThat(reads.execute(status -> server())).isEqualTo("primary");
+        actAs("10.0.0.2");
+        assertThat(reads.execute(status -> server())).isEqualTo("replica");
+
+        actAs("10.0.0.1");
+        nanos.addAndGet(TimeUnit.SECONDS.toNanos(6));
+        assertThat(reads.execute(status -> server())).isEqualTo("replica");
+    }
+
+    @Test
+    void rolledBackWriteDoesNotPin() {
+        actAs("10.0.0.1");
+        writes.executeWithoutResult(status -> {
+            jdbc.update("update marker set touched = touched + 1");
+            status.setRollbackOnly();
+        });
+
+        assertThat(reads.execute(status -> server())).isEqualTo("replica");
+    }
+
+    @Test
+    void onPrimary_forcesPrimaryForReads() throws Exception {
+        Executor executor = ReadWriteRoutingDataSource.onPrimary(Runnable::run);
+
+        String server = CompletableFuture.supplyAsync(() -> reads.execute(status -> server()), executor)
+                .get(5, TimeUnit.SECONDS);
+
+        assertThat(server).isEqualTo("primary");
+    }
+
+    private String server() {
+        return jdbc.queryForObject("select name from marker", String.class);
+    }
+
+    private static void actAs(String ip) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setRemoteAddr(ip);
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+    }
+
+    private static DataSource database(String name) {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("create table if not exists marker (name varchar(20), touched int)");
+        jdbc.update("delete from marker");
+        jdbc.update("insert into marker values (?, 0)", name.substring(name.indexOf('_') + 1));
+        return dataSource;
+    }
+}
@@ -0,0 +1,113 @@
+package co.medina.starter.practice.mail.service;
+
+import co.medina.starter.practice.mail.domain.OutboxEmail;
+import co.medina.starter.practice.mail.domain.OutboxStatus;
+import co.medina.starter.practice.mail.repo.OutboxEmailRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the outbox claim queries against a real schema: a row claimed by one dispatcher is not sent by another
+ * until its claim goes stale.
+ */
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED) // the claim update commits on its own
+class OutboxClaimTest {
+
+    private static final Duration CLAIM_TIMEOUT = Duration.ofMinutes(5);
+
+    @Autowired
+    private OutboxEmailRepository repository;
+
+    @AfterEach
+    void tearDown() {
+        repository.deleteAll();
+    }
+
+    @Test
+    void rowsClaimedByAnotherDispatcher_areNotSentAgain() {
+        List<Long> ids = List.of(pending("a@example.com").getId(), pending("b@example.com").getId());
+        Instant now = Instant.now();
+
+        assertThat(repository.claim(ids, "other", now, now.minus(CLAIM_TIMEOUT))).isEqualTo(2);
+        assertThat(repository.claim(ids, "late", now, now.minus(CLAIM_TIMEOUT))).isZero();
+
+        assertThat(dispatcher().dispatchBatch()).isZero();
+        assertThat(repository.findAll())
+                .allSatisfy(email -> {
+                    assertThat(email.getStatus()).isEqualTo(OutboxStatus.SENDING);
+                    assertThat(email.getClaimedBy()).isEqualTo("other");
+                });
+    }
+
+    @Test
+    void staleClaims_areTakenOver() {
+        Long id = pending("a@example.com").getId();
+        Instant longAgo = Instant.now().minus(CLAIM_TIMEOUT).minusSeconds(60);
+        repository.claim(List.of(id), "dead", longAgo, longAgo.minus(CLAIM_TIMEOUT));
+
+        assertThat(dispatcher().dispatchBatch()).isEqualTo(1);
+
+        assertThat(repository.findById(id)).get()
+                .extracting(OutboxEmail::getStatus).isEqualTo(OutboxStatus.SENT);
+    }
+
+    @Test
+    void slowDispatcher_cannotOverwriteTheOutcomeOfTheOneThatTookItsRowsOver() {
+        Long id = pending("a@example.com").getId();
+        Instant longAgo = Instant.now().minus(CLAIM_TIMEOUT).minusSeconds(60);
+        repository.claim(List.of(id), "slow", longAgo, longAgo.minus(CLAIM_TIMEOUT));
+        assertThat(dispatcher().dispatchBatch()).isEqualTo(1);
+
+        assertThat(repository.markSent(List.of(id), "slow", OutboxStatus.SENT, Instant.now())).isZero();
+        assertThat(repository.reschedule(id, "slow", OutboxStatus.PENDING, 1, Instant.now(), "timeout")).isZero();
+
+        OutboxEmail email = repository.findById(id).orElseThrow();
+        assertThat(email.getStatus()).isEqualTo(OutboxStatus.SENT);
+        assertThat(email.getAttempts()).isEqualTo(1);
+        assertThat(email.getLastError()).isNull();
+    }
+
+    @Test
+    void dueRows_areClaimedAndSent() {
+        Long id = pending("a@example.com").getId();
+
+        assertThat(dispatcher().dispatchBatch()).isEqualTo(1);
+
+        OutboxEmail sent = repository.findById(id).orElseThrow();
+        assertThat(sent.getStatus()).isEqualTo(OutboxStatus.SENT);
+        assertThat(sent.getClaimedBy()).isNotNull();
+        assertThat(repository.findClaimableIds(Instant.now(), Instant.now().minus(CLAIM_TIMEOUT), Pageable.unpaged()))
+                .isEmpty();
+    }
+
+    private OutboxEmail pending(String recipient) {
+        Instant now = Instant.now();
+        return repository.save(OutboxEmail.builder()
+                .recipient(recipient)
+                .subject("Confirm your account")
+                .body("link")
+                .status(OutboxStatus.PENDING)
+                .nextAttemptAt(now)
+                .createdAt(now)
+                .build());
+    }
+
+    // no mail sender: emails are logged, which is enough to see which rows a batch took
+    private OutboxDispatcher dispatcher() {
+        return new OutboxDispatcher(repository, null, new MailCircuitBreaker(5, Duration.ofSeconds(60), Duration.ofSeconds(5)),
+                "", 50, 3, Duration.ofSeconds(5), Duration.ofMinutes(15), Duration.ofSeconds(2), Duration.ofSeconds(5),
+                CLAIM_TIMEOUT);
+    }
+}
@@ -0,0 +1,204 @@
+package co.medina.starter.practice.mail.service;
+
+import co.medina.starter.practice.mail.domain.OutboxEmail;
+import co.medina.starter.practice.mail.domain.OutboxStatus;
+import co.medina.starter.practice.mail.repo.OutboxEmailRepository;
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class OutboxDispatcherTest {
+
+    @RegisterExtension
+    static GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP);
+
+    @Mock
+    private OutboxEmailRepository repository;
+
+    private AutoCloseable mocks;
+
+    @BeforeEach
+    void setup() {
+        mocks = MockitoAnnotations.openMocks(this);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        if (mocks != null) {
+            mocks.close();
+        }
+    }
+
+    @Test
+    void dispatchBatch_shouldSendWholeBatch_andMarkRowsSent() throws Exception {
+        claimable(pending(1L, "a@example.com", 0), pending(2L, "b@example.com", 0));
+        OutboxDispatcher dispatcher = dispatcher(sender(ServerSetupTest.SMTP.getPort()), breaker(5));
+
+        int dispatched = dispatcher.dispatchBatch();
+
+        assertThat(dispatched).isEqualTo(2);
+        MimeMessage[] received = greenMail.getReceivedMessages();
+        assertThat(received).hasSize(2);
+        assertThat(received[0].getSubject()).isEqualTo("Confirm your account");
+        verify(repository).markSent(eq(List.of(1L, 2L)), any(), eq(OutboxStatus.SENT), any());
+        verify(repository, never()).reschedule(any(), any(), any(), anyInt(), any(), any());
+    }
+
+    @Test
+    void dispatchBatch_shouldScheduleRetryWithBackoff_whenSmtpUnavailable() throws Exception {
+        OutboxEmail email = pending(1L, "a@example.com", 0);
+        claimable(email);
+        OutboxDispatcher dispatcher = dispatcher(sender(unusedPort()), breaker(5));
+        Instant before = Instant.now();
+
+        dispatcher.dispatchBatch();
+
+        assertThat(email.getStatus()).isEqualTo(OutboxStatus.PENDING);
+        assertThat(email.getAttempts()).isEqualTo(1);
+        assertThat(email.getNextAttemptAt()).isAfterOrEqualTo(before.plusSeconds(5));
+        assertThat(email.getLastError()).isNotBlank();
+        verify(repository).reschedule(eq(1L), any(), eq(OutboxStatus.PENDING), eq(1),
+                eq(email.getNextAttemptAt()), eq(email.getLastError()));
+        verify(repository, never()).markSent(any(), any(), any(), any());
+    }
+
+    @Test
+    void dispatchBatch_shouldMarkFailed_afterMaxAttempts() throws Exception {
+        OutboxEmail email = pending(1L, "a@example.com", 2);
+        claimable(email);
+        OutboxDispatcher dispatcher = dispatcher(sender(unusedPort()), breaker(5));
+
+        dispatcher.dispatchBatch();
+
+        assertThat(email.getStatus()).isEqualTo(OutboxStatus.FAILED);
+        assertThat(email.getAttempts()).isEqualTo(3);
+    }
+
+    @Test
+    void dispatchBatch_shouldStopPolling_whenCircuitOpens() throws Exception {
+        claimable(pending(1L, "a@example.com", 0));
+        MailCircuitBreaker breaker = breaker(2);
+        OutboxDispatcher dispatcher = dispatcher(sender(unusedPort()), breaker);
+
+        dispatcher.dispatchBatch();
+        dispatcher.dispatchBatch();
+        int dispatched = dispatcher.dispatchBatch();
+
+        assertThat(dispatched).isZero();
+        assertThat(breaker.getState()).isEqualTo(MailCircuitBreaker.State.OPEN);
+        verify(repository, times(2)).findClaimableIds(any(), any(), any());
+    }
+
+    @Test
+    void dispatchBatch_shouldSendNothing_whenAnotherDispatcherClaimedTheRows() {
+        given(repository.findClaimableIds(any(), any(), any())).willReturn(List.of(1L, 2L));
+        given(repository.claim(any(), any(), any(), any())).willReturn(0);
+        OutboxDispatcher dispatcher = dispatcher(sender(ServerSetupTest.SMTP.getPort()), breaker(5));
+
+        int dispatched = dispatcher.dispatchBatch();
+
+        assertThat(dispatched).isZero();
+        assertThat(greenMail.getReceivedMessages()).isEmpty();
+        verify(repository, never()).findByClaimedByOrderByIdAsc(any());
+        verify(repository, never()).markSent(any(), any(), any(), any());
+    }
+
+    @Test
+    void circuitBreaker_shouldHalfOpenAfterOpenDuration_andCloseOnFastSuccess() {
+        Clock clock = mock(Clock.class);
+        Instant t0 = Instant.parse("2025-01-01T00:00:00Z");
+        given(clock.instant()).willReturn(t0, t0.plusSeconds(30), t0.plusSeconds(61));
+        MailCircuitBreaker breaker = new MailCircuitBreaker(1, Duration.ofSeconds(60), Duration.ofSeconds(5), clock);
+
+        breaker.recordFailure();
+        assertThat(breaker.allowRequest()).isFalse();
+        assertThat(breaker.allowRequest()).isTrue();
+        assertThat(breaker.getState()).isEqualTo(MailCircuitBreaker.State.HALF_OPEN);
+
+        breaker.recordSuccess(Duration.ofMillis(50));
+        assertThat(breaker.getState()).isEqualTo(MailCircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void circuitBreaker_shouldCountSlowBatchesAsFailures() {
+        MailCircuitBreaker breaker = breaker(2);
+
+        breaker.recordSuccess(Duration.ofSeconds(10));
+        breaker.recordSuccess(Duration.ofSeconds(10));
+
+        assertThat(breaker.getState()).isEqualTo(MailCircuitBreaker.State.OPEN);
+    }
+
+    private OutboxDispatcher dispatcher(JavaMailSenderImpl sender, MailCircuitBreaker breaker) {
+        return new OutboxDispatcher(repository, sender, breaker, "noreply@example.com",
+                50, 3, Duration.ofSeconds(5), Duration.ofMinutes(15), Duration.ofSeconds(2), Duration.ofSeconds(5),
+                Duration.ofMinutes(5));
+    }
+
+    private void claimable(OutboxEmail... emails) {
+        List<Long> ids = Stream.of(emails).map(OutboxEmail::getId).toList();
+        given(repository.findClaimableIds(any(), any(), any())).willReturn(ids);
+        given(repository.claim(eq(ids), any(), any(), any())).willReturn(ids.size());
+        given(repository.findByClaimedByOrderByIdAsc(any())).willReturn(List.of(emails));
+        given(repository.markSent(any(), any(), any(), any())).willAnswer(inv -> inv.<List<Long>>getArgument(0).size());
+        given(repository.reschedule(any(), any(), any(), anyInt(), any(), any())).willReturn(1);
+    }
+
+    private static MailCircuitBreaker breaker(int failureThreshold) {
+        return new MailCircuitBreaker(failureThreshold, Duration.ofSeconds(60), Duration.ofSeconds(5));
+    }
+
+    private static JavaMailSenderImpl sender(int port) {
+        JavaMailSenderImpl sender = new JavaMailSenderImpl();
+        sender.setHost("localhost");
+        sender.setPort(port);
+        sender.getJavaMailProperties().put("mail.smtp.connectiontimeout", "2000");
+        return sender;
+    }
+
+    private static int unusedPort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static OutboxEmail pending(Long id, String recipient, int attempts) {
+        Instant now = Instant.now();
+        return OutboxEmail.builder()
+                .id(id)
+                .recipient(recipient)
+                .subject("Confirm your account")
+                .body("link")
+                .status(OutboxStatus.PENDING)
+                .attempts(attempts)
+                .nextAttemptAt(now)
+                .createdAt(now)
+                .build();
+    }
+}
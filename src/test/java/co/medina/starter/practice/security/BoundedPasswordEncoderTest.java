@@ -0,0 +1,91 @@
+package co.medina.starter.practice.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BoundedPasswordEncoderTest {
+
+    private final CountDownLatch started = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+    private BoundedPasswordEncoder encoder;
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        encoder.close();
+    }
+
+    @Test
+    void delegatesOnHashingThreads() {
+        encoder = new BoundedPasswordEncoder(new ThreadNameEncoder(), 2, 4);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        encoder.bindTo(registry);
+
+        assertThat(encoder.encode("secret")).startsWith("password-hash-");
+        assertThat(encoder.matches("secret", "password-hash-0")).isTrue();
+        assertThat(registry.get("security.password").tag("operation", "encode").timer().count()).isEqualTo(1);
+        assertThat(registry.get("security.password").tag("operation", "matches").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void rejectsWhenQueueIsFull() throws Exception {
+        encoder = new BoundedPasswordEncoder(new BlockingEncoder(), 1, 1);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        encoder.bindTo(registry);
+
+        CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> encoder.encode("a"));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture<String> queued = CompletableFuture.supplyAsync(() -> encoder.encode("b"));
+        while (encoder.queueDepth() == 0) {
+            Thread.sleep(1);
+        }
+
+        assertThatThrownBy(() -> encoder.encode("c")).isInstanceOf(PasswordHashingRejectedException.class);
+        assertThat(registry.get("auth.hashing.rejected").functionCounter().count()).isEqualTo(1);
+        assertThat(registry.get("auth.hashing.queue.depth").gauge().value()).isEqualTo(1);
+
+        release.countDown();
+        assertThat(running.get(5, TimeUnit.SECONDS)).isEqualTo("hashed-a");
+        assertThat(queued.get(5, TimeUnit.SECONDS)).isEqualTo("hashed-b");
+        assertThat(registry.get("auth.hashing.wait").functionTimer().count()).isEqualTo(2);
+    }
+
+    private static final class ThreadNameEncoder implements PasswordEncoder {
+        @Override
+        public String encode(CharSequence rawPassword) {
+            return Thread.currentThread().getName();
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            return Thread.currentThread().getName().startsWith("password-hash-");
+        }
+    }
+
+    private final class BlockingEncoder implements PasswordEncoder {
+        @Override
+        public String encode(CharSequence rawPassword) {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return "hashed-" + rawPassword;
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            return encode(rawPassword).equals(encodedPassword);
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package co.medina.starter.practice.security;
+
+import co.medina.starter.practice.user.domain.User;
+import co.medina.starter.practice.user.domain.UserChangedEvent;
+import co.medina.starter.practice.user.repo.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class CustomUserDetailsServiceTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    private AutoCloseable mocks;
+    private CustomUserDetailsService userDetailsService;
+
+    @BeforeEach
+    void setup() {
+        mocks = MockitoAnnotations.openMocks(this);
+        userDetailsService = new CustomUserDetailsService(userRepository, new UserDetailsCache(Duration.ofMinutes(5), 100));
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        if (mocks != null) {
+            mocks.close();
+        }
+    }
+
+    @Test
+    void loadUserByUsername_shouldHitDatabaseOnce_whenCalledRepeatedly() {
+        given(userRepository.findByEmail("a@b.com")).willReturn(Optional.of(user("hash-1")));
+
+        userDetailsService.loadUserByUsername("a@b.com");
+        var details = userDetailsService.loadUserByUsername("a@b.com");
+
+        assertThat(details.getPassword()).isEqualTo("hash-1");
+        verify(userRepository, times(1)).findByEmail("a@b.com");
+    }
+
+    @Test
+    void loadUserByUsername_shouldReload_afterUserChangedEvent() {
+        var cache = new UserDetailsCache(Duration.ofMinutes(5), 100);
+        userDetailsService = new CustomUserDetailsService(userRepository, cache);
+        given(userRepository.findByEmail("a@b.com"))
+                .willReturn(Optional.of(user("hash-1")), Optional.of(user("hash-2")));
+
+        userDetailsService.loadUserByUsername("a@b.com");
+        cache.onUserChanged(new UserChangedEvent(1L, "a@b.com", null));
+
+        assertThat(userDetailsService.loadUserByUsername("a@b.com").getPassword()).isEqualTo("hash-2");
+    }
+
+    @Test
+    void loadUserByUsername_shouldReload_afterDeleteEvent() {
+        var cache = new UserDetailsCache(Duration.ofMinutes(5), 100);
+        userDetailsService = new CustomUserDetailsService(userRepository, cache);
+        given(userRepository.findByEmail("a@b.com")).willReturn(Optional.of(user("hash-1")), Optional.empty());
+
+        userDetailsService.loadUserByUsername("a@b.com");
+        cache.onUserChanged(UserChangedEvent.deleted(1L));
+
+        assertThatThrownBy(() -> userDetailsService.loadUserByUsername("a@b.com"))
+                .isInstanceOf(UsernameNotFoundException.class);
+    }
+
+    @Test
+    void loadUserByUsername_shouldCarryIdAndVerificationStatus() {
+        User unverified = User.builder().id(9L).email("p@b.com").name("P").password("hash").emailVerified(false).build();
+        given(userRepository.findByEmail("p@b.com")).willReturn(Optional.of(unverified));
+        given(userRepository.findByEmail("a@b.com")).willReturn(Optional.of(user("hash-1")));
+
+        var pending = (AppUserDetails) userDetailsService.loadUserByUsername("p@b.com");
+        var verified = (AppUserDetails) userDetailsService.loadUserByUsername("a@b.com");
+
+        assertThat(pending.getId()).isEqualTo(9L);
+        assertThat(pending.isEnabled()).isFalse();
+        assertThat(verified.isEnabled()).isTrue();
+    }
+
+    private static User user(String password) {
+        return User.builder().id(1L).email("a@b.com").name("A").password(password).emailVerified(true).build();
+    }
+}
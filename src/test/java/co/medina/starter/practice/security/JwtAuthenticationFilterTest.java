@@ -0,0 +1,111 @@
+package co.medina.starter.practice.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetailsService;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+class JwtAuthenticationFilterTest {
+
+    @Mock
+    private JwtUtil jwtUtil;
+
+    @Mock
+    private UserDetailsService userDetailsService;
+
+    @Mock
+    private TokenVersionService tokenVersionService;
+
+    @Mock
+    private FilterChain filterChain;
+
+    private AutoCloseable mocks;
+    private JwtAuthenticationFilter filter;
+
+    private final AppUserDetails principal =
+            new AppUserDetails(7L, "a@b.com", "", 3, true, List.of(new SimpleGrantedAuthority("ROLE_USER")));
+
+    @BeforeEach
+    void setup() {
+        mocks = MockitoAnnotations.openMocks(this);
+        filter = new JwtAuthenticationFilter(jwtUtil, userDetailsService, tokenVersionService, true,
+                new String[]{"/v1/auth/**", "/actuator/**"});
+        given(jwtUtil.extractUsername("tkn")).willReturn("a@b.com");
+        given(jwtUtil.extractPrincipal("tkn")).willReturn(principal);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        SecurityContextHolder.clearContext();
+        if (mocks != null) {
+            mocks.close();
+        }
+    }
+
+    @Test
+    void doFilter_shouldAuthenticateFromClaims_withoutLoadingUser() throws Exception {
+        given(tokenVersionService.isCurrent(7L, 3)).willReturn(true);
+
+        filter.doFilter(bearerRequest("/v1/api/users/1"), new MockHttpServletResponse(), filterChain);
+
+        assertThat(SecurityContextHolder.getContext().getAuthentication().getPrincipal()).isEqualTo(principal);
+        verify(userDetailsService, never()).loadUserByUsername(any());
+        verify(filterChain).doFilter(any(), any());
+    }
+
+    @Test
+    void doFilter_shouldNotAuthenticate_whenTokenVersionRevoked() throws Exception {
+        given(tokenVersionService.isCurrent(7L, 3)).willReturn(false);
+
+        filter.doFilter(bearerRequest("/v1/api/users/1"), new MockHttpServletResponse(), filterChain);
+
+        assertThat(SecurityContextHolder.getContext().getAuthentication()).isNull();
+        verify(userDetailsService, never()).loadUserByUsername(any());
+        verify(filterChain).doFilter(any(), any());
+    }
+
+    @Test
+    void doFilter_shouldTimeAuthentication_byOutcome() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        filter.bindTo(registry);
+        given(tokenVersionService.isCurrent(7L, 3)).willReturn(true, false);
+
+        filter.doFilter(bearerRequest("/v1/api/users/1"), new MockHttpServletResponse(), filterChain);
+        SecurityContextHolder.clearContext();
+        filter.doFilter(bearerRequest("/v1/api/users/1"), new MockHttpServletResponse(), filterChain);
+
+        assertThat(registry.get("security.jwt.filter").tag("authenticated", "true").timer().count()).isEqualTo(1);
+        assertThat(registry.get("security.jwt.filter").tag("authenticated", "false").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void doFilter_shouldSkipPermitAllPaths() throws Exception {
+        filter.doFilter(bearerRequest("/v1/auth/login"), new MockHttpServletResponse(), filterChain);
+
+        verifyNoInteractions(jwtUtil, userDetailsService, tokenVersionService);
+        verify(filterChain).doFilter(any(), any());
+    }
+
+    private MockHttpServletRequest bearerRequest(String uri) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", uri);
+        request.addHeader("Authorization", "Bearer tkn");
+        return request;
+    }
+}
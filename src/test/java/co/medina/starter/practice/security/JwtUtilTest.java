@@ -0,0 +1,62 @@
+package co.medina.starter.practice.security;
+
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class JwtUtilTest {
+
+    private static final String SECRET = "uY5c9l4P1k8Q2h7bJcN4sGqzR6tVwXyZ3aB0cD1eF2g=";
+
+    private final UserDetails user = User.withUsername("a@b.com").password("x").roles("USER").build();
+
+    private VerifiedTokenCache tokenCache;
+    private JwtUtil jwtUtil;
+
+    @BeforeEach
+    void setup() {
+        tokenCache = new VerifiedTokenCache(100);
+        jwtUtil = new JwtUtil(SECRET, 60_000, tokenCache);
+    }
+
+    @Test
+    void validateToken_shouldVerifySignatureOnce_whenTokenIsReplayed() {
+        String token = jwtUtil.generateToken(user);
+
+        for (int i = 0; i < 10; i++) {
+            assertThat(jwtUtil.extractUsername(token)).isEqualTo("a@b.com");
+            assertThat(jwtUtil.validateToken(token, user)).isTrue();
+        }
+
+        assertThat(tokenCache.stats().missCount()).isEqualTo(1);
+        assertThat(tokenCache.stats().hitCount()).isEqualTo(29);
+    }
+
+    @Test
+    void extractUsername_shouldNotCache_whenSignatureIsInvalid() {
+        String token = jwtUtil.generateToken(user);
+        int pos = token.lastIndexOf('.') + 5;
+        char flipped = token.charAt(pos) == 'a' ? 'b' : 'a';
+        String tampered = token.substring(0, pos) + flipped + token.substring(pos + 1);
+
+        assertThatThrownBy(() -> jwtUtil.extractUsername(tampered)).isInstanceOf(JwtException.class);
+        assertThatThrownBy(() -> jwtUtil.extractUsername(tampered)).isInstanceOf(JwtException.class);
+
+        assertThat(tokenCache.stats().missCount()).isEqualTo(2);
+        assertThat(tokenCache.stats().hitCount()).isZero();
+    }
+
+    @Test
+    void extractUsername_shouldReject_whenTokenExpired() {
+        JwtUtil expiring = new JwtUtil(SECRET, -1_000, tokenCache);
+        String token = expiring.generateToken(user);
+
+        assertThatThrownBy(() -> expiring.extractUsername(token)).isInstanceOf(ExpiredJwtException.class);
+    }
+}
@@ -0,0 +1,60 @@
+package co.medina.starter.practice.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.DisabledException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.crypto.password.NoOpPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LoginAuthenticationProviderTest {
+
+    private final AtomicInteger matches = new AtomicInteger();
+
+    private final PasswordEncoder countingEncoder = new PasswordEncoder() {
+        @Override
+        public String encode(CharSequence rawPassword) {
+            return NoOpPasswordEncoder.getInstance().encode(rawPassword);
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            matches.incrementAndGet();
+            return NoOpPasswordEncoder.getInstance().matches(rawPassword, encodedPassword);
+        }
+    };
+
+    private final UserDetailsService users = username -> new AppUserDetails(1L, username, "secret", 0,
+            !username.startsWith("pending"), List.of(new SimpleGrantedAuthority("ROLE_USER")));
+
+    private final LoginAuthenticationProvider provider = new LoginAuthenticationProvider(users, countingEncoder);
+
+    @Test
+    void wrongPasswordForUnverifiedUser_isMatchedAndReportedAsBadCredentials() {
+        assertThatThrownBy(() -> provider.authenticate(new UsernamePasswordAuthenticationToken("pending@example.com", "wrong")))
+                .isInstanceOf(BadCredentialsException.class);
+        assertThat(matches).hasValue(1);
+    }
+
+    @Test
+    void rightPasswordForUnverifiedUser_isRejectedAfterTheMatch() {
+        assertThatThrownBy(() -> provider.authenticate(new UsernamePasswordAuthenticationToken("pending@example.com", "secret")))
+                .isInstanceOf(DisabledException.class);
+        assertThat(matches).hasValue(1);
+    }
+
+    @Test
+    void verifiedUser_logsIn() {
+        assertThat(provider.authenticate(new UsernamePasswordAuthenticationToken("verified@example.com", "secret"))
+                .isAuthenticated()).isTrue();
+        assertThat(matches).hasValue(1);
+    }
+}
@@ -0,0 +1,75 @@
+package co.medina.starter.practice.security;
+
+import co.medina.starter.practice.user.domain.User;
+import co.medina.starter.practice.user.repo.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.security.authentication.DisabledException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.crypto.password.NoOpPasswordEncoder;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Counts the SQL statements a login issues against a real schema: one user lookup, and nothing else.
+ */
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED) // user details load on their own thread, so rows must be committed
+@TestPropertySource(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class LoginQueryCountTest {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private LoginAuthenticationProvider provider;
+    private Statistics statistics;
+
+    @BeforeEach
+    void setup() {
+        userRepository.save(User.builder().email("verified@example.com").name("V").password("secret").emailVerified(true).build());
+        userRepository.save(User.builder().email("pending@example.com").name("P").password("secret").emailVerified(false).build());
+
+        provider = new LoginAuthenticationProvider(
+                new CustomUserDetailsService(userRepository, new UserDetailsCache(Duration.ofMinutes(5), 100)),
+                NoOpPasswordEncoder.getInstance());
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void login_issuesSingleQuery() {
+        Authentication auth = provider.authenticate(new UsernamePasswordAuthenticationToken("verified@example.com", "secret"));
+
+        assertThat(auth.isAuthenticated()).isTrue();
+        assertThat(((AppUserDetails) auth.getPrincipal()).getId()).isNotNull();
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void unverifiedLogin_isRejectedFromTheSameQuery() {
+        assertThatThrownBy(() -> provider.authenticate(new UsernamePasswordAuthenticationToken("pending@example.com", "secret")))
+                .isInstanceOf(DisabledException.class);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+}
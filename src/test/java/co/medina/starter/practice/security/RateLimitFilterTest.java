@@ -0,0 +1,167 @@
+package co.medina.starter.practice.security;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RateLimitFilterTest {
+
+    private final AtomicLong nanos = new AtomicLong();
+    private RateLimitFilter filter;
+
+    @BeforeEach
+    void setup() {
+        RateLimitProperties properties = new RateLimitProperties(true, 1_000, Duration.ofMinutes(10), Map.of(
+                "login-ip", new RateLimitProperties.Route("/v1/auth/login", "POST", RateLimitProperties.KeyType.IP, 3, Duration.ofSeconds(30)),
+                "login-email", new RateLimitProperties.Route("/v1/auth/login", "POST", RateLimitProperties.KeyType.EMAIL, 2, Duration.ofSeconds(60))));
+        filter = new RateLimitFilter(properties, new ObjectMapper(), nanos::get);
+    }
+
+    @Test
+    void rejectsOnceBurstIsSpent_withRetryAfter() throws Exception {
+        assertThat(send(login("10.0.0.1", "a@b.com")).getStatus()).isEqualTo(200);
+        assertThat(send(login("10.0.0.1", "c@d.com")).getStatus()).isEqualTo(200);
+        assertThat(send(login("10.0.0.1", "e@f.com")).getStatus()).isEqualTo(200);
+
+        MockHttpServletResponse rejected = send(login("10.0.0.1", "g@h.com"));
+
+        assertThat(rejected.getStatus()).isEqualTo(429);
+        // one token every 10s
+        assertThat(rejected.getHeader("Retry-After")).isEqualTo("10");
+        assertThat(filter.rejections("login-ip")).isEqualTo(1);
+        assertThat(filter.rejections("login-email")).isZero();
+    }
+
+    @Test
+    void refillsOverTime() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            send(login("10.0.0.1", "user" + i + "@b.com"));
+        }
+        assertThat(send(login("10.0.0.1", "x@b.com")).getStatus()).isEqualTo(429);
+
+        nanos.addAndGet(TimeUnit.SECONDS.toNanos(10));
+
+        assertThat(send(login("10.0.0.1", "y@b.com")).getStatus()).isEqualTo(200);
+        assertThat(send(login("10.0.0.1", "z@b.com")).getStatus()).isEqualTo(429);
+    }
+
+    @Test
+    void keysByEmail_acrossIps_caseInsensitive() throws Exception {
+        assertThat(send(login("10.0.0.1", "a@b.com")).getStatus()).isEqualTo(200);
+        assertThat(send(login("10.0.0.2", "A@B.com")).getStatus()).isEqualTo(200);
+
+        MockHttpServletResponse rejected = send(login("10.0.0.3", "a@b.com"));
+
+        assertThat(rejected.getStatus()).isEqualTo(429);
+        assertThat(rejected.getHeader("Retry-After")).isEqualTo("30");
+        assertThat(filter.rejections("login-email")).isEqualTo(1);
+    }
+
+    @Test
+    void rejectionByTheIpLimit_doesNotSpendTheEmailLimit() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            send(login("10.0.0.1", "user" + i + "@b.com"));
+        }
+        assertThat(send(login("10.0.0.1", "a@b.com")).getStatus()).isEqualTo(429);
+
+        assertThat(send(login("10.0.0.2", "a@b.com")).getStatus()).isEqualTo(200);
+        assertThat(send(login("10.0.0.3", "a@b.com")).getStatus()).isEqualTo(200);
+        assertThat(send(login("10.0.0.4", "a@b.com")).getStatus()).isEqualTo(429);
+    }
+
+    @Test
+    void rejectionByTheEmailLimit_doesNotSpendTheIpLimit() throws Exception {
+        send(login("10.0.0.1", "a@b.com"));
+        send(login("10.0.0.1", "a@b.com"));
+        assertThat(send(login("10.0.0.1", "a@b.com")).getStatus()).isEqualTo(429);
+
+        assertThat(send(login("10.0.0.1", "c@d.com")).getStatus()).isEqualTo(200);
+        assertThat(send(login("10.0.0.1", "e@f.com")).getStatus()).isEqualTo(429);
+        assertThat(filter.rejections("login-ip")).isEqualTo(1);
+    }
+
+    @Test
+    void downstreamCanStillReadTheBody() throws Exception {
+        MockHttpServletRequest request = login("10.0.0.1", "a@b.com");
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+
+        assertThat(new String(chain.getRequest().getInputStream().readAllBytes(), StandardCharsets.UTF_8))
+                .contains("\"email\":\"a@b.com\"");
+    }
+
+    @Test
+    void downstreamCanReadTheBodyWithAReadListener() throws Exception {
+        MockFilterChain chain = new MockFilterChain();
+        filter.doFilter(login("10.0.0.1", "a@b.com"), new MockHttpServletResponse(), chain);
+        ServletInputStream in = chain.getRequest().getInputStream();
+        ByteArrayOutputStream read = new ByteArrayOutputStream();
+        AtomicBoolean allRead = new AtomicBoolean();
+
+        in.setReadListener(new ReadListener() {
+            @Override
+            public void onDataAvailable() throws IOException {
+                byte[] buffer = new byte[16];
+                while (in.isReady() && !in.isFinished()) {
+                    int n = in.read(buffer);
+                    if (n > 0) {
+                        read.write(buffer, 0, n);
+                    }
+                }
+            }
+
+            @Override
+            public void onAllDataRead() {
+                allRead.set(true);
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                throw new AssertionError(t);
+            }
+        });
+
+        assertThat(allRead).isTrue();
+        assertThat(read.toString(StandardCharsets.UTF_8)).contains("\"email\":\"a@b.com\"");
+    }
+
+    @Test
+    void otherRoutesAreNotLimited() throws Exception {
+        for (int i = 0; i < 10; i++) {
+            MockHttpServletRequest request = new MockHttpServletRequest("GET", "/v1/auth/check-email");
+            request.setRemoteAddr("10.0.0.1");
+            assertThat(send(request).getStatus()).isEqualTo(200);
+        }
+    }
+
+    private MockHttpServletResponse send(MockHttpServletRequest request) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+
+    private static MockHttpServletRequest login(String ip, String email) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/v1/auth/login");
+        request.setRemoteAddr(ip);
+        request.setContentType("application/json");
+        request.setContent(("{\"email\":\"" + email + "\",\"password\":\"secret\"}").getBytes(StandardCharsets.UTF_8));
+        return request;
+    }
+}
@@ -0,0 +1,35 @@
+package co.medina.starter.practice.support;
+
+import co.medina.starter.practice.observability.SqlTelemetry;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Pins the number of JDBC statements an operation issues, so N+1 regressions fail a test instead of a dashboard.
+ * Statements from every thread are counted (cache loaders run on their own), and a batch counts as one.
+ */
+public final class SqlStatements {
+
+    private SqlStatements() {
+    }
+
+    @FunctionalInterface
+    public interface Action {
+        void run() throws Exception;
+    }
+
+    public static List<String> capture(SqlTelemetry telemetry, Action action) throws Exception {
+        try (SqlTelemetry.Recording recording = telemetry.record()) {
+            action.run();
+            return recording.statements();
+        }
+    }
+
+    public static void assertStatementCount(SqlTelemetry telemetry, int expected, Action action) throws Exception {
+        assertThat(capture(telemetry, action))
+                .as("SQL statements issued")
+                .hasSize(expected);
+    }
+}
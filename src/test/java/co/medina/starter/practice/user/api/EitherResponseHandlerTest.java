@@ -0,0 +1,47 @@
+package co.medina.starter.practice.user.api;
+
+import co.medina.starter.practice.auth.AuthController;
+import co.medina.starter.practice.auth.LoginRequest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.vavr.control.Either;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.http.server.ServletServerHttpResponse;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EitherResponseHandlerTest {
+
+    @Test
+    void beforeBodyWrite_shouldSetStatusAndCountApiErrors() throws Exception {
+        EitherResponseHandler handler = new EitherResponseHandler();
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        handler.bindTo(registry);
+        MethodParameter login = new MethodParameter(AuthController.class.getMethod("login", LoginRequest.class), -1);
+        MockHttpServletResponse servletResponse = new MockHttpServletResponse();
+
+        Object body = write(handler, Either.left(new ApiError(HttpStatus.UNAUTHORIZED, "Invalid credentials")), login, servletResponse);
+        write(handler, Either.left(new ApiError(HttpStatus.UNAUTHORIZED, "Invalid credentials")), login, new MockHttpServletResponse());
+        write(handler, Either.right("ok"), login, new MockHttpServletResponse());
+
+        assertThat(body).isInstanceOf(ApiError.class);
+        assertThat(servletResponse.getStatus()).isEqualTo(401);
+        assertThat(registry.get("api.errors").tags("controller", "AuthController", "status", "401").counter().count())
+                .isEqualTo(2);
+    }
+
+    private static Object write(EitherResponseHandler handler, Either<?, ?> body, MethodParameter returnType,
+                                MockHttpServletResponse servletResponse) {
+        ServletServerHttpResponse response = new ServletServerHttpResponse(servletResponse);
+        Object written = handler.beforeBodyWrite(body, returnType, MediaType.APPLICATION_JSON,
+                MappingJackson2HttpMessageConverter.class, new ServletServerHttpRequest(new MockHttpServletRequest()), response);
+        response.close();
+        return written;
+    }
+}
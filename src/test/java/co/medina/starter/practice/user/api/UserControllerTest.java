@@ -1,9 +1,19 @@
 package co.medina.starter.practice.user.api;
 
 import co.medina.starter.practice.security.JwtUtil;
+import co.medina.starter.practice.security.TokenVersionService;
+import co.medina.starter.practice.user.api.dto.BatchResult;
+import co.medina.starter.practice.user.api.dto.CursorPage;
+import co.medina.starter.practice.user.api.dto.UserCursor;
+import co.medina.starter.practice.user.api.dto.UserImportResult;
+import co.medina.starter.practice.user.api.dto.UserImportRow;
+import co.medina.starter.practice.user.api.dto.UserImportSummary;
 import co.medina.starter.practice.user.api.dto.UserRequest;
 import co.medina.starter.practice.user.api.dto.UserResponse;
 import co.medina.starter.practice.user.domain.User;
+import co.medina.starter.practice.user.domain.UserView;
+import co.medina.starter.practice.user.service.UserExportService;
+import co.medina.starter.practice.user.service.UserImportService;
 import co.medina.starter.practice.user.service.UserService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import io.vavr.control.Either;
@@ -13,26 +23,39 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.test.context.TestPropertySource;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
 import java.util.NoSuchElementException;
+import java.util.function.Consumer;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(controllers = {UserController.class, EitherResponseHandler.class})
@@ -49,6 +72,12 @@ class UserControllerTest {
     @MockitoBean
     private UserService userService;
 
+    @MockitoBean
+    private UserImportService userImportService;
+
+    @MockitoBean
+    private UserExportService userExportService;
+
     @MockitoBean
     private UserMapper userMapper;
 
@@ -58,6 +87,9 @@ class UserControllerTest {
     @MockitoBean
     private UserDetailsService userDetailsService;
 
+    @MockitoBean
+    private TokenVersionService tokenVersionService;
+
 
     @Test
     @DisplayName("POST /api/users - 201 Created happy path")
@@ -93,13 +125,40 @@ class UserControllerTest {
     @Test
     @DisplayName("GET /api/users/{id} - 200 OK when found")
     void get_shouldReturn200_whenFound() throws Exception {
-        var user = User.builder().id(2L).build();
+        var view = new UserView(2L, null, null, null, null, 3L);
         var resp = UserResponse.builder().id(2L).build();
-        given(userService.getById(2L)).willReturn(Either.right(user));
-        given(userMapper.toResponse(user)).willReturn(resp);
+        given(userService.getViewById(2L)).willReturn(Either.right(view));
+        given(userMapper.toResponse(view)).willReturn(resp);
 
         mockMvc.perform(get("/v1/api/users/2"))
                 .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"3\""))
+                .andExpect(jsonPath("$.id").value(2));
+    }
+
+    @Test
+    @DisplayName("GET /api/users/{id} - 304 Not Modified from the version alone when If-None-Match matches")
+    void get_shouldReturn304_whenEtagMatches() throws Exception {
+        given(userService.getVersion(2L)).willReturn(Either.right(3L));
+
+        mockMvc.perform(get("/v1/api/users/2").header(HttpHeaders.IF_NONE_MATCH, "\"3\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"3\""));
+
+        verify(userService, never()).getViewById(any());
+    }
+
+    @Test
+    @DisplayName("GET /api/users/{id} - 200 OK with the current ETag when If-None-Match is stale")
+    void get_shouldReturn200_whenEtagIsStale() throws Exception {
+        var view = new UserView(2L, null, null, null, null, 4L);
+        given(userService.getVersion(2L)).willReturn(Either.right(4L));
+        given(userService.getViewById(2L)).willReturn(Either.right(view));
+        given(userMapper.toResponse(view)).willReturn(UserResponse.builder().id(2L).build());
+
+        mockMvc.perform(get("/v1/api/users/2").header(HttpHeaders.IF_NONE_MATCH, "\"3\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"4\""))
                 .andExpect(jsonPath("$.id").value(2));
     }
 
@@ -107,7 +166,7 @@ class UserControllerTest {
     @DisplayName("GET /api/users/{id} - 404 Not Found when missing")
     void get_shouldReturn404_whenMissing() throws Exception {
         var error = new NoSuchElementException("User not found");
-        given(userService.getById(404L)).willReturn(Either.left(error));
+        given(userService.getViewById(404L)).willReturn(Either.left(error));
 
         mockMvc.perform(get("/v1/api/users/404"))
                 .andExpect(status().isNotFound())
@@ -117,16 +176,76 @@ class UserControllerTest {
     @Test
     @DisplayName("GET /api/users - 200 OK with user list")
     void list_shouldReturn200() throws Exception {
-        var user = User.builder().id(1L).build();
-        Page<User> userPage = new PageImpl<>(Collections.singletonList(user));
+        var view = new UserView(1L, null, null, null, null, 0L);
+        Page<UserView> userPage = new PageImpl<>(Collections.singletonList(view));
 
-        given(userService.getAll(any(Pageable.class))).willReturn(Either.right(userPage));
-        given(userMapper.toResponse(user)).willReturn(UserResponse.builder().id(1L).build());
+        given(userService.getAllViews(any(Pageable.class))).willReturn(Either.right(userPage));
+        given(userMapper.toResponse(view)).willReturn(UserResponse.builder().id(1L).build());
 
 
         mockMvc.perform(get("/v1/api/users"))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$.content[0].id").value(1));
+                .andExpect(jsonPath("$.content[0].id").value(1))
+                .andExpect(jsonPath("$.page").value(0))
+                .andExpect(jsonPath("$.totalElements").value(1))
+                .andExpect(jsonPath("$.totalPages").value(1))
+                .andExpect(jsonPath("$.pageable").doesNotExist())
+                .andExpect(jsonPath("$.sort").doesNotExist());
+    }
+
+    @Test
+    @DisplayName("GET /api/users?ids= - 200 OK with users in request order and missing ids")
+    void getByIds_shouldReturnUsersInOrder_andMissingIds() throws Exception {
+        var three = new UserView(3L, null, null, null, null, 0L);
+        var one = new UserView(1L, null, null, null, null, 0L);
+        given(userService.getViewsByIds(List.of(3L, 9L, 1L)))
+                .willReturn(Either.right(new BatchResult<>(List.of(three, one), List.of(9L))));
+        given(userMapper.toResponse(three)).willReturn(UserResponse.builder().id(3L).build());
+        given(userMapper.toResponse(one)).willReturn(UserResponse.builder().id(1L).build());
+
+        mockMvc.perform(get("/v1/api/users").param("ids", "3,9,1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].id").value(3))
+                .andExpect(jsonPath("$.content[1].id").value(1))
+                .andExpect(jsonPath("$.missing[0]").value(9))
+                .andExpect(jsonPath("$.totalElements").doesNotExist());
+    }
+
+    @Test
+    @DisplayName("GET /api/users?ids= - 400 Bad Request when too many ids are requested")
+    void getByIds_shouldReturn400_whenRejected() throws Exception {
+        given(userService.getViewsByIds(any()))
+                .willReturn(Either.left(new IllegalArgumentException("ids must hold between 1 and 100 user ids")));
+
+        mockMvc.perform(get("/v1/api/users").param("ids", "1"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("ids must hold between 1 and 100 user ids"));
+    }
+
+    @Test
+    @DisplayName("GET /api/users?limit= - 200 OK with next cursor instead of totals")
+    void listAfter_shouldReturnNextCursor() throws Exception {
+        var user = User.builder().id(3L).build();
+        var cursor = new UserCursor(UserCursor.SortKey.ID, null, 2L);
+        given(userService.getPage(cursor, 1))
+                .willReturn(Either.right(new CursorPage<>(List.of(user), "next-cursor")));
+        given(userMapper.toResponse(user)).willReturn(UserResponse.builder().id(3L).build());
+
+        mockMvc.perform(get("/v1/api/users").param("limit", "1").param("after", cursor.encode()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].id").value(3))
+                .andExpect(jsonPath("$.nextCursor").value("next-cursor"))
+                .andExpect(jsonPath("$.totalElements").doesNotExist());
+    }
+
+    @Test
+    @DisplayName("GET /api/users?limit= - 400 Bad Request on a cursor issued for another sort key")
+    void listAfter_shouldReturn400_onMismatchedCursor() throws Exception {
+        String emailCursor = new UserCursor(UserCursor.SortKey.EMAIL, "a@example.com", 1L).encode();
+
+        mockMvc.perform(get("/v1/api/users").param("limit", "1").param("sort", "name").param("after", emailCursor))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Cursor was issued for sort=email"));
     }
 
     @Test
@@ -146,6 +265,49 @@ class UserControllerTest {
                 .andExpect(jsonPath("$.id").value(5));
     }
 
+    @Test
+    @DisplayName("PUT /api/users/{id} - 200 OK with the new ETag when If-Match holds")
+    void update_shouldPassIfMatchVersion() throws Exception {
+        var req = new UserRequest("x@y.com", null, "X", null);
+        var updated = User.builder().id(5L).version(5L).build();
+        given(userService.update(eq(5L), eq(4L), any(UserRequest.class))).willReturn(Either.right(updated));
+        given(userMapper.toResponse(updated)).willReturn(UserResponse.builder().id(5L).build());
+
+        mockMvc.perform(put("/v1/api/users/5")
+                        .header(HttpHeaders.IF_MATCH, "\"4\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(req)))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"5\""));
+    }
+
+    @Test
+    @DisplayName("PUT /api/users/{id} - 412 Precondition Failed when If-Match is stale")
+    void update_shouldReturn412_whenIfMatchIsStale() throws Exception {
+        var req = new UserRequest("x@y.com", null, "X", null);
+        given(userService.update(eq(5L), eq(3L), any(UserRequest.class)))
+                .willReturn(Either.left(new OptimisticLockingFailureException("User 5 has been modified")));
+
+        mockMvc.perform(put("/v1/api/users/5")
+                        .header(HttpHeaders.IF_MATCH, "\"3\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(req)))
+                .andExpect(status().isPreconditionFailed());
+    }
+
+    @Test
+    @DisplayName("PUT /api/users/{id} - 409 Conflict when an unconditional update loses a race")
+    void update_shouldReturn409_onConcurrentUpdateWithoutIfMatch() throws Exception {
+        var req = new UserRequest("x@y.com", null, "X", null);
+        given(userService.update(eq(5L), any(UserRequest.class)))
+                .willReturn(Either.left(new OptimisticLockingFailureException("stale")));
+
+        mockMvc.perform(put("/v1/api/users/5")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(req)))
+                .andExpect(status().isConflict());
+    }
+
     @Test
     @DisplayName("PUT /api/users/{id} - 404 Not Found on update")
     void update_shouldReturn404_whenNotFound() throws Exception {
@@ -169,6 +331,18 @@ class UserControllerTest {
                 .andExpect(status().isNoContent());
     }
 
+    @Test
+    @DisplayName("DELETE /api/users/{id} - a weak If-Match tag never matches")
+    void delete_shouldFailPrecondition_forWeakIfMatch() throws Exception {
+        given(userService.delete(eq(7L), anyLong()))
+                .willReturn(Either.left(new OptimisticLockingFailureException("User 7 has been modified")));
+
+        mockMvc.perform(delete("/v1/api/users/7").header(HttpHeaders.IF_MATCH, "W/\"2\""))
+                .andExpect(status().isPreconditionFailed());
+
+        verify(userService).delete(7L, -1L);
+    }
+
     @Test
     @DisplayName("DELETE /api/users/{id} - 404 Not Found on delete")
     void delete_shouldReturn404_whenNotFound() throws Exception {
@@ -184,10 +358,73 @@ class UserControllerTest {
     @DisplayName("GET /api/users - 500 Internal Server Error on unexpected exception")
     void get_shouldReturn500_onUnexpectedException() throws Exception {
         var error = new RuntimeException("boom");
-        given(userService.getById(1L)).willReturn(Either.left(error));
+        given(userService.getViewById(1L)).willReturn(Either.left(error));
 
         mockMvc.perform(get("/v1/api/users/1"))
                 .andExpect(status().isInternalServerError())
                 .andExpect(jsonPath("$.message").value("An unexpected error occurred"));
     }
+
+    @Test
+    @DisplayName("POST /api/users/bulk - streams one NDJSON result per CSV row plus a summary")
+    @SuppressWarnings("unchecked")
+    void bulkImport_shouldStreamResultsPerRow() throws Exception {
+        given(userImportService.importUsers(any(), any())).willAnswer(inv -> {
+            Iterator<UserImportRow> rows = inv.getArgument(0);
+            Consumer<UserImportResult> results = inv.getArgument(1);
+            long created = 0;
+            while (rows.hasNext()) {
+                results.accept(UserImportResult.created(rows.next(), ++created));
+            }
+            return Either.right(new UserImportSummary(created, 0, 0));
+        });
+
+        MvcResult pending = mockMvc.perform(post("/v1/api/users/bulk")
+                        .contentType("text/csv")
+                        .content("email,name\na@example.com,Ann\n\"b@example.com\",\"Bo, Jr\"\n"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String body = mockMvc.perform(asyncDispatch(pending))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        assertThat(body.lines()).containsExactly(
+                "{\"line\":2,\"email\":\"a@example.com\",\"status\":\"CREATED\",\"id\":1}",
+                "{\"line\":3,\"email\":\"b@example.com\",\"status\":\"CREATED\",\"id\":2}",
+                "{\"summary\":{\"created\":2,\"duplicates\":0,\"invalid\":0}}");
+    }
+
+    @Test
+    @DisplayName("GET /api/users/export?format=csv - streams a CSV attachment")
+    void export_shouldStreamCsv() throws Exception {
+        var user = User.builder().id(1L).build();
+        given(userExportService.exportAll(any())).willAnswer(inv -> {
+            Consumer<User> sink = inv.getArgument(0);
+            sink.accept(user);
+            return Either.right(1L);
+        });
+        given(userMapper.toResponse(user)).willReturn(UserResponse.builder()
+                .id(1L).email("a@example.com").name("Doe, John").address("Say \"hi\"").build());
+
+        MvcResult pending = mockMvc.perform(get("/v1/api/users/export").param("format", "csv"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String body = mockMvc.perform(asyncDispatch(pending))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Disposition", "attachment; filename=\"users.csv\""))
+                .andReturn().getResponse().getContentAsString();
+
+        assertThat(body.lines()).containsExactly(
+                "id,email,mobileNumber,name,address",
+                "1,a@example.com,,\"Doe, John\",\"Say \"\"hi\"\"\"");
+    }
+
+    @Test
+    @DisplayName("GET /api/users/export - 400 Bad Request on unknown format")
+    void export_shouldReturn400_onUnknownFormat() throws Exception {
+        mockMvc.perform(get("/v1/api/users/export").param("format", "xml"))
+                .andExpect(status().isBadRequest());
+    }
 }
@@ -0,0 +1,63 @@
+package co.medina.starter.practice.user.api;
+
+import co.medina.starter.practice.user.api.dto.BatchResult;
+import co.medina.starter.practice.user.api.dto.CursorPage;
+import co.medina.starter.practice.user.api.dto.PageResponse;
+import co.medina.starter.practice.user.api.dto.UserResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.mock.http.MockHttpOutputMessage;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UserJsonHttpMessageConverterTest {
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private final UserJsonHttpMessageConverter converter = new UserJsonHttpMessageConverter(objectMapper);
+    private final MappingJackson2HttpMessageConverter generic = new MappingJackson2HttpMessageConverter(objectMapper);
+
+    private final UserResponse user = UserResponse.builder()
+            .id(1L).email("ana@example.com").name("Ana").mobileNumber("+34600000000").build();
+
+    @Test
+    void writesUserTypesExactlyLikeTheGenericConverter() throws Exception {
+        for (Object body : List.of(
+                user,
+                new PageResponse<>(List.of(user, user), 0, 2, 5, 3),
+                new PageResponse<>(List.of(), 1, 20, 0, 0),
+                new CursorPage<>(List.of(user), "next"),
+                new BatchResult<>(List.of(user), List.of(7L)),
+                new ApiError(HttpStatus.NOT_FOUND, "User not found: 1"))) {
+            assertThat(write(converter, body)).isEqualTo(write(generic, body));
+        }
+    }
+
+    @Test
+    void fallsBackForOtherContent() throws Exception {
+        Object page = new PageResponse<>(List.of(Map.of("id", 1)), 0, 1, 1, 1);
+
+        assertThat(write(converter, page)).isEqualTo(write(generic, page));
+        assertThat(write(converter, Map.of("summary", "ok"))).isEqualTo("{\"summary\":\"ok\"}");
+    }
+
+    @Test
+    void compactPageOmitsPageableAndSort() throws Exception {
+        String json = write(converter, new PageResponse<>(List.of(user), 0, 20, 1, 1));
+
+        assertThat(objectMapper.readTree(json).fieldNames()).toIterable()
+                .containsExactly("content", "page", "size", "totalElements", "totalPages");
+    }
+
+    private static String write(MappingJackson2HttpMessageConverter converter, Object body) throws Exception {
+        MockHttpOutputMessage output = new MockHttpOutputMessage();
+        converter.write(body, null, MediaType.APPLICATION_JSON, output);
+        return output.getBodyAsString();
+    }
+}
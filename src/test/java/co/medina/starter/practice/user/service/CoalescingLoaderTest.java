@@ -0,0 +1,90 @@
+package co.medina.starter.practice.user.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CoalescingLoaderTest {
+
+    private static final Executor EXECUTOR = Runnable::run;
+
+    private final List<Long> singleLoads = new CopyOnWriteArrayList<>();
+    private final List<Set<Long>> batchLoads = new CopyOnWriteArrayList<>();
+
+    private final Function<Long, String> loader = id -> {
+        singleLoads.add(id);
+        return "user-" + id;
+    };
+
+    // id 9 does not exist
+    private final Function<Set<Long>, Map<Long, String>> batchLoader = ids -> {
+        batchLoads.add(Set.copyOf(ids));
+        return ids.stream().filter(id -> id != 9L).collect(Collectors.toMap(id -> id, id -> "user-" + id));
+    };
+
+    @Test
+    void loadsWithinTheWindow_shareOneBatchQuery() throws Exception {
+        CoalescingLoader<Long, String> coalescer = new CoalescingLoader<>(Duration.ofMillis(50), 100, EXECUTOR);
+
+        CompletableFuture<String> first = coalescer.load(1L, loader, batchLoader);
+        CompletableFuture<String> second = coalescer.load(2L, loader, batchLoader);
+        CompletableFuture<String> missing = coalescer.load(9L, loader, batchLoader);
+
+        assertThat(first.get(5, TimeUnit.SECONDS)).isEqualTo("user-1");
+        assertThat(second.get(5, TimeUnit.SECONDS)).isEqualTo("user-2");
+        assertThat(missing.get(5, TimeUnit.SECONDS)).isNull();
+        assertThat(batchLoads).containsExactly(Set.of(1L, 2L, 9L));
+        assertThat(singleLoads).isEmpty();
+        assertThat(coalescer.loads()).isEqualTo(1);
+        assertThat(coalescer.keys()).isEqualTo(3);
+    }
+
+    @Test
+    void loneLoad_usesTheSingleKeyLoader() throws Exception {
+        CoalescingLoader<Long, String> coalescer = new CoalescingLoader<>(Duration.ofMillis(1), 100, EXECUTOR);
+
+        assertThat(coalescer.load(1L, loader, batchLoader).get(5, TimeUnit.SECONDS)).isEqualTo("user-1");
+        assertThat(coalescer.load(2L, loader, batchLoader).get(5, TimeUnit.SECONDS)).isEqualTo("user-2");
+
+        assertThat(singleLoads).containsExactly(1L, 2L);
+        assertThat(batchLoads).isEmpty();
+    }
+
+    @Test
+    void fullBatch_isFlushedWithoutWaitingForTheWindow() throws Exception {
+        CoalescingLoader<Long, String> coalescer = new CoalescingLoader<>(Duration.ofHours(1), 2, EXECUTOR);
+
+        CompletableFuture<String> first = coalescer.load(1L, loader, batchLoader);
+        CompletableFuture<String> second = coalescer.load(2L, loader, batchLoader);
+
+        assertThat(first.get(5, TimeUnit.SECONDS)).isEqualTo("user-1");
+        assertThat(second.get(5, TimeUnit.SECONDS)).isEqualTo("user-2");
+        assertThat(batchLoads).containsExactly(Set.of(1L, 2L));
+    }
+
+    @Test
+    void failedBatch_failsEveryWaiter() {
+        CoalescingLoader<Long, String> coalescer = new CoalescingLoader<>(Duration.ofHours(1), 2, EXECUTOR);
+        Function<Set<Long>, Map<Long, String>> failing = ids -> {
+            throw new IllegalStateException("database down");
+        };
+
+        CompletableFuture<String> first = coalescer.load(1L, loader, failing);
+        CompletableFuture<String> second = coalescer.load(2L, loader, failing);
+
+        assertThatThrownBy(() -> first.get(5, TimeUnit.SECONDS)).hasCauseInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> second.get(5, TimeUnit.SECONDS)).hasCauseInstanceOf(IllegalStateException.class);
+    }
+}
@@ -0,0 +1,81 @@
+package co.medina.starter.practice.user.service;
+
+import co.medina.starter.practice.datasource.ReadWriteRoutingDataSource;
+import co.medina.starter.practice.user.repo.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+
+/**
+ * The filter scan runs in a read-only transaction on a background thread, which would normally go to the replica.
+ * The replica here lags: it lacks the most recent email, so a scan served by it would rule that user out.
+ */
+class EmailExistenceFilterRoutingTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    private AutoCloseable mocks;
+    private EmailExistenceFilter filter;
+
+    @BeforeEach
+    void setup() {
+        mocks = MockitoAnnotations.openMocks(this);
+        DataSource primary = database("email_primary", "old@example.com", "recent@example.com");
+        DataSource replica = database("email_replica", "old@example.com");
+        DataSource dataSource = new LazyConnectionDataSourceProxy(
+                new ReadWriteRoutingDataSource(primary, replica, Duration.ZERO, 100));
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        TransactionTemplate readOnly = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        readOnly.setReadOnly(true);
+
+        given(userRepository.count()).willReturn(2L);
+        given(userRepository.streamAllEmails())
+                .willAnswer(inv -> jdbc.queryForList("select email from users", String.class).stream());
+        filter = new EmailExistenceFilter(userRepository, readOnly, 1_000, 0.01, 0.2);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        if (mocks != null) {
+            mocks.close();
+        }
+    }
+
+    @Test
+    void buildScansThePrimary() throws InterruptedException {
+        filter.onApplicationReady();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!filter.isReady() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+
+        assertThat(filter.isReady()).isTrue();
+        assertThat(filter.exists("recent@example.com", email -> true)).isTrue();
+    }
+
+    private static DataSource database(String name, String... emails) {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("create table if not exists users (email varchar(255))");
+        jdbc.update("delete from users");
+        for (String email : emails) {
+            jdbc.update("insert into users values (?)", email);
+        }
+        return dataSource;
+    }
+}
@@ -0,0 +1,111 @@
+package co.medina.starter.practice.user.service;
+
+import co.medina.starter.practice.user.domain.UserChangedEvent;
+import co.medina.starter.practice.user.repo.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+
+class EmailExistenceFilterTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    private AutoCloseable mocks;
+    private EmailExistenceFilter filter;
+
+    @BeforeEach
+    void setup() {
+        mocks = MockitoAnnotations.openMocks(this);
+        filter = new EmailExistenceFilter(userRepository, TransactionOperations.withoutTransaction(), 10_000, 0.01, 0.2);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        if (mocks != null) {
+            mocks.close();
+        }
+    }
+
+    @Test
+    void exists_shouldAskDatabase_untilFilterIsBuilt() {
+        AtomicInteger queries = new AtomicInteger();
+
+        boolean exists = filter.exists("new@example.com", email -> {
+            queries.incrementAndGet();
+            return false;
+        });
+
+        assertThat(exists).isFalse();
+        assertThat(queries).hasValue(1);
+        assertThat(filter.isReady()).isFalse();
+    }
+
+    @Test
+    void exists_shouldAnswerNegativesWithoutDatabase_andConfirmPositives() {
+        build("Known@Example.com");
+        AtomicInteger queries = new AtomicInteger();
+
+        boolean unknown = filter.exists("new@example.com", email -> {
+            queries.incrementAndGet();
+            return false;
+        });
+        boolean known = filter.exists(" known@example.com", email -> {
+            queries.incrementAndGet();
+            return true;
+        });
+
+        assertThat(unknown).isFalse();
+        assertThat(known).isTrue();
+        assertThat(queries).hasValue(1);
+    }
+
+    @Test
+    void exists_shouldCountFalsePositives_whenDatabaseDisagrees() {
+        build("deleted@example.com");
+
+        boolean exists = filter.exists("deleted@example.com", email -> false);
+
+        assertThat(exists).isFalse();
+        assertThat(filter.observedFpp()).isEqualTo(1.0);
+    }
+
+    @Test
+    void onUserChanged_shouldAddNewEmail() {
+        build();
+
+        filter.onUserChanged(new UserChangedEvent(1L, "fresh@example.com", null));
+
+        assertThat(filter.exists("fresh@example.com", email -> true)).isTrue();
+    }
+
+    @Test
+    void filter_shouldHaveNoFalseNegatives_andStayNearConfiguredFpp() {
+        build(IntStream.range(0, 10_000).mapToObj(i -> "user-" + i + "@example.com").toArray(String[]::new));
+
+        long falseNegatives = IntStream.range(0, 10_000)
+                .filter(i -> !filter.exists("user-" + i + "@example.com", email -> true))
+                .count();
+        IntStream.range(0, 10_000).forEach(i -> filter.exists("absent-" + i + "@example.com", email -> false));
+
+        assertThat(falseNegatives).isZero();
+        assertThat(filter.observedFpp()).isLessThan(0.02);
+    }
+
+    private void build(String... emails) {
+        given(userRepository.count()).willReturn((long) emails.length);
+        given(userRepository.streamAllEmails()).willReturn(Stream.of(emails));
+        filter.rebuild();
+        assertThat(filter.isReady()).isTrue();
+    }
+}
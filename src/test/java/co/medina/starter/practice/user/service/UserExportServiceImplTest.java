@@ -0,0 +1,78 @@
+package co.medina.starter.practice.user.service;
+
+import co.medina.starter.practice.user.domain.User;
+import co.medina.starter.practice.user.repo.UserRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.inOrder;
+
+class UserExportServiceImplTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @InjectMocks
+    private UserExportServiceImpl exportService;
+
+    private AutoCloseable mocks;
+
+    @BeforeEach
+    void setup() {
+        mocks = MockitoAnnotations.openMocks(this);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        if (mocks != null) {
+            mocks.close();
+        }
+    }
+
+    @Test
+    void exportAll_shouldWriteThenDetachEachUser() {
+        var first = User.builder().id(1L).email("a@example.com").build();
+        var second = User.builder().id(2L).email("b@example.com").build();
+        given(userRepository.streamAllBy()).willReturn(Stream.of(first, second));
+        List<User> written = new ArrayList<>();
+
+        var exported = exportService.exportAll(written::add);
+
+        assertThat(exported.get()).isEqualTo(2L);
+        assertThat(written).containsExactly(first, second);
+        InOrder order = inOrder(entityManager);
+        order.verify(entityManager).detach(first);
+        order.verify(entityManager).detach(second);
+    }
+
+    @Test
+    void exportAll_shouldCloseCursor_whenSinkFails() {
+        AtomicBoolean closed = new AtomicBoolean();
+        given(userRepository.streamAllBy()).willReturn(Stream.of(User.builder().id(1L).build()).onClose(() -> closed.set(true)));
+
+        var exported = exportService.exportAll(user -> {
+            throw new UncheckedIOException(new IOException("client went away"));
+        });
+
+        assertThat(exported.isLeft()).isTrue();
+        assertThat(closed).isTrue();
+    }
+}
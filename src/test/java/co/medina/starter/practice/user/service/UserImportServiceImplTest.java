@@ -0,0 +1,122 @@
+package co.medina.starter.practice.user.service;
+
+import co.medina.starter.practice.user.api.dto.UserImportResult;
+import co.medina.starter.practice.user.api.dto.UserImportRow;
+import co.medina.starter.practice.user.api.dto.UserRequest;
+import co.medina.starter.practice.user.domain.User;
+import co.medina.starter.practice.user.repo.UserRepository;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class UserImportServiceImplTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private AutoCloseable mocks;
+    private UserImportServiceImpl importService;
+    private final AtomicLong ids = new AtomicLong();
+
+    @BeforeEach
+    void setup() {
+        mocks = MockitoAnnotations.openMocks(this);
+        importService = new UserImportServiceImpl(userRepository,
+                Validation.buildDefaultValidatorFactory().getValidator(), eventPublisher, 2);
+        given(userRepository.findExistingEmails(anyCollection())).willReturn(List.of());
+        given(userRepository.saveAll(any())).willAnswer(inv -> {
+            List<User> users = inv.getArgument(0);
+            users.forEach(u -> u.setId(ids.incrementAndGet()));
+            return users;
+        });
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        if (mocks != null) {
+            mocks.close();
+        }
+    }
+
+    @Test
+    void importUsers_shouldInsertInChunks_andReportEveryRow() {
+        List<UserImportResult> results = new ArrayList<>();
+
+        var summary = importService.importUsers(List.of(
+                row(1, "a@example.com"), row(2, "b@example.com"), row(3, "c@example.com")).iterator(), results::add).get();
+
+        assertThat(summary.created()).isEqualTo(3);
+        assertThat(results).extracting(UserImportResult::status).containsOnly(UserImportResult.Status.CREATED);
+        assertThat(results).extracting(UserImportResult::id).containsExactly(1L, 2L, 3L);
+        // chunk size 2: one duplicate check and one batch insert per chunk
+        verify(userRepository, times(2)).findExistingEmails(anyCollection());
+        verify(userRepository, times(2)).saveAll(any());
+        verify(eventPublisher, times(3)).publishEvent(any(Object.class));
+    }
+
+    @Test
+    void importUsers_shouldReportDuplicatesInBodyAndDatabase_andInvalidRows() {
+        given(userRepository.findExistingEmails(anyCollection())).willReturn(List.of("taken@example.com"));
+        List<UserImportResult> results = new ArrayList<>();
+
+        var summary = importService.importUsers(List.of(
+                row(1, "a@example.com"),
+                row(2, "a@example.com"),
+                row(3, "taken@example.com"),
+                row(4, "not-an-email"),
+                UserImportRow.unparseable(5, "Malformed JSON")).iterator(), results::add).get();
+
+        assertThat(summary.created()).isEqualTo(1);
+        assertThat(summary.duplicates()).isEqualTo(2);
+        assertThat(summary.invalid()).isEqualTo(2);
+        assertThat(results).extracting(UserImportResult::line, UserImportResult::status).containsExactlyInAnyOrder(
+                tuple(1L, UserImportResult.Status.CREATED),
+                tuple(2L, UserImportResult.Status.DUPLICATE),
+                tuple(3L, UserImportResult.Status.DUPLICATE),
+                tuple(4L, UserImportResult.Status.INVALID),
+                tuple(5L, UserImportResult.Status.INVALID));
+    }
+
+    @Test
+    void importUsers_shouldFallBackToRowByRow_whenBatchHitsConcurrentInsert() {
+        given(userRepository.saveAll(any())).willThrow(new DataIntegrityViolationException("duplicate"));
+        given(userRepository.save(any(User.class))).willAnswer(inv -> {
+            User user = inv.getArgument(0);
+            if (user.getEmail().equals("raced@example.com")) {
+                throw new DataIntegrityViolationException("duplicate");
+            }
+            user.setId(ids.incrementAndGet());
+            return user;
+        });
+
+        var summary = importService.importUsers(List.of(
+                row(1, "a@example.com"), row(2, "raced@example.com")).iterator(), result -> { }).get();
+
+        assertThat(summary.created()).isEqualTo(1);
+        assertThat(summary.duplicates()).isEqualTo(1);
+    }
+
+    private static UserImportRow row(long line, String email) {
+        return UserImportRow.parsed(line, new UserRequest(email, null, "Name " + line, null));
+    }
+}
@@ -1,7 +1,9 @@
 package co.medina.starter.practice.user.service;
 
+import co.medina.starter.practice.user.api.dto.UserCursor;
 import co.medina.starter.practice.user.api.dto.UserRequest;
 import co.medina.starter.practice.user.domain.User;
+import co.medina.starter.practice.user.domain.UserChangedEvent;
 import co.medina.starter.practice.user.repo.UserRepository;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
@@ -9,8 +11,15 @@ import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Pageable;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.support.TransactionOperations;
 
+import java.util.List;
 import java.util.NoSuchElementException;
 import java.util.Optional;
 
@@ -18,6 +27,7 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willThrow;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 
@@ -26,6 +36,14 @@ class UserServiceImplMoreTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    // not built yet, so every lookup reaches the mocked existsByEmail
+    @Spy
+    private EmailExistenceFilter emailExistenceFilter =
+            new EmailExistenceFilter(null, TransactionOperations.withoutTransaction(), 1000, 0.01, 0.2);
+
     @InjectMocks
     private UserServiceImpl userService;
 
@@ -61,6 +79,21 @@ class UserServiceImplMoreTest {
         verify(userRepository).save(existing);
     }
 
+    @Test
+    void update_shouldPublishUserChangedEvent_withPreviousEmail() {
+        var existing = User.builder().id(12L).email("old@example.com").name("Old").build();
+        var req = new UserRequest("new@example.com", null, "Old", null);
+
+        given(userRepository.findById(12L)).willReturn(Optional.of(existing));
+        given(userRepository.existsByEmail("new@example.com")).willReturn(false);
+        given(userRepository.save(any(User.class))).willAnswer(inv -> inv.getArgument(0));
+
+        userService.update(12L, req);
+
+        verify(eventPublisher).publishEvent(new UserChangedEvent(12L, "new@example.com", "old@example.com"));
+        assertThat(existing.getTokenVersion()).isEqualTo(1);
+    }
+
     @Test
     void update_shouldReturnError_whenNotFound() {
         var req = new UserRequest("x@example.com", null, "X", null);
@@ -98,6 +131,7 @@ class UserServiceImplMoreTest {
 
         assertThat(result.isRight()).isTrue();
         verify(userRepository).deleteById(5L);
+        verify(eventPublisher).publishEvent(UserChangedEvent.deleted(5L));
     }
 
     @Test
@@ -112,4 +146,76 @@ class UserServiceImplMoreTest {
 
         verify(userRepository, never()).deleteById(any());
     }
+
+    @Test
+    void update_shouldFail_whenExpectedVersionIsStale() {
+        var existing = User.builder().id(10L).email("a@example.com").name("A").version(2L).build();
+        given(userRepository.findById(10L)).willReturn(Optional.of(existing));
+
+        var result = userService.update(10L, 1L, new UserRequest("a@example.com", null, "B", null));
+
+        assertThat(result.getLeft()).isInstanceOf(OptimisticLockingFailureException.class);
+        assertThat(existing.getName()).isEqualTo("A");
+        verify(userRepository, never()).save(any());
+    }
+
+    @Test
+    void update_shouldFlush_soALostRaceIsReturnedAsLeft() {
+        var existing = User.builder().id(10L).email("a@example.com").name("A").version(2L).build();
+        given(userRepository.findById(10L)).willReturn(Optional.of(existing));
+        given(userRepository.save(any(User.class))).willAnswer(inv -> inv.getArgument(0));
+        willThrow(new ObjectOptimisticLockingFailureException(User.class, 10L)).given(userRepository).flush();
+
+        var result = userService.update(10L, 2L, new UserRequest("a@example.com", null, "B", null));
+
+        assertThat(result.getLeft()).isInstanceOf(OptimisticLockingFailureException.class);
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    @Test
+    void delete_withExpectedVersion_shouldRemoveTheLoadedUser() {
+        var existing = User.builder().id(5L).email("a@example.com").name("A").version(3L).build();
+        given(userRepository.findById(5L)).willReturn(Optional.of(existing));
+
+        assertThat(userService.delete(5L, 3L).isRight()).isTrue();
+        assertThat(userService.delete(5L, 2L).getLeft()).isInstanceOf(OptimisticLockingFailureException.class);
+
+        verify(userRepository).delete(existing);
+        verify(eventPublisher).publishEvent(UserChangedEvent.deleted(5L));
+    }
+
+    @Test
+    void getPage_shouldReturnNextCursor_whenMoreRowsRemain() {
+        var first = User.builder().id(1L).email("a@example.com").name("Ann").build();
+        var second = User.builder().id(2L).email("b@example.com").name("Ann").build();
+        var third = User.builder().id(3L).email("c@example.com").name("Bob").build();
+        given(userRepository.findAllBy(any(Pageable.class))).willReturn(List.of(first, second, third));
+
+        var page = userService.getPage(UserCursor.first(UserCursor.SortKey.NAME), 2).get();
+
+        assertThat(page.content()).containsExactly(first, second);
+        var next = UserCursor.decode(page.nextCursor(), UserCursor.SortKey.NAME);
+        assertThat(next.value()).isEqualTo("Ann");
+        assertThat(next.id()).isEqualTo(2L);
+        verify(userRepository, never()).count();
+    }
+
+    @Test
+    void getPage_shouldSeekPastCursor_andEndWithoutNextCursor() {
+        var last = User.builder().id(42L).email("z@example.com").name("Zed").build();
+        given(userRepository.findPageAfterName(eq("Ann"), eq(2L), any(Pageable.class))).willReturn(List.of(last));
+
+        var page = userService.getPage(new UserCursor(UserCursor.SortKey.NAME, "Ann", 2L), 2).get();
+
+        assertThat(page.content()).containsExactly(last);
+        assertThat(page.nextCursor()).isNull();
+    }
+
+    @Test
+    void getPage_shouldReject_limitAboveMaximum() {
+        var result = userService.getPage(UserCursor.first(UserCursor.SortKey.ID), 1000);
+
+        assertThat(result.isLeft()).isTrue();
+        assertThat(result.getLeft()).isInstanceOf(IllegalArgumentException.class);
+    }
 }
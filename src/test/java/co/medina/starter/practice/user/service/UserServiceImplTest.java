@@ -2,6 +2,8 @@ package co.medina.starter.practice.user.service;
 
 import co.medina.starter.practice.user.api.dto.UserRequest;
 import co.medina.starter.practice.user.domain.User;
+import co.medina.starter.practice.user.domain.UserChangedEvent;
+import co.medina.starter.practice.user.domain.UserView;
 import co.medina.starter.practice.user.repo.UserRepository;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
@@ -10,14 +12,23 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.support.TransactionOperations;
 
+import java.time.Duration;
+import java.util.List;
+import java.util.NoSuchElementException;
 import java.util.Optional;
+import java.util.stream.LongStream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
 class UserServiceImplTest {
@@ -25,6 +36,17 @@ class UserServiceImplTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Spy
+    private UserViewCache userViewCache = new UserViewCache(Duration.ofMinutes(5), Duration.ofSeconds(5), 100, Duration.ZERO, 100);
+
+    // not built yet, so every lookup reaches the mocked existsByEmail
+    @Spy
+    private EmailExistenceFilter emailExistenceFilter =
+            new EmailExistenceFilter(null, TransactionOperations.withoutTransaction(), 1000, 0.01, 0.2);
+
     @InjectMocks
     private UserServiceImpl userService;
 
@@ -81,4 +103,91 @@ class UserServiceImplTest {
         assertThat(found.isRight()).isTrue();
         assertThat(found.get().getId()).isEqualTo(99L);
     }
+
+    @Test
+    void getViewById_shouldReadProjection_withoutLoadingEntity() {
+        given(userRepository.findViewById(99L)).willReturn(Optional.of(new UserView(99L, "a@b.com", null, "A", null, 0L)));
+        var found = userService.getViewById(99L);
+        assertThat(found.isRight()).isTrue();
+        assertThat(found.get().email()).isEqualTo("a@b.com");
+        verify(userRepository, never()).findById(any());
+    }
+
+    @Test
+    void getViewById_shouldReturnNotFound_whenMissing() {
+        given(userRepository.findViewById(7L)).willReturn(Optional.empty());
+        var found = userService.getViewById(7L);
+        assertThat(found.isLeft()).isTrue();
+        assertThat(found.getLeft()).isInstanceOf(NoSuchElementException.class);
+    }
+
+    @Test
+    void getViewById_shouldServeRepeatedReadsFromCache_untilUserChanges() {
+        given(userRepository.findViewById(5L)).willReturn(
+                Optional.of(new UserView(5L, "old@b.com", null, "A", null, 0L)),
+                Optional.of(new UserView(5L, "new@b.com", null, "A", null, 1L)));
+
+        userService.getViewById(5L);
+        var cached = userService.getViewById(5L);
+        userViewCache.onUserChanged(new UserChangedEvent(5L, "new@b.com", "old@b.com"));
+        var reloaded = userService.getViewById(5L);
+
+        assertThat(cached.get().email()).isEqualTo("old@b.com");
+        assertThat(reloaded.get().email()).isEqualTo("new@b.com");
+        verify(userRepository, times(2)).findViewById(5L);
+    }
+
+    @Test
+    void getViewById_shouldCacheNotFound() {
+        given(userRepository.findViewById(8L)).willReturn(Optional.empty());
+
+        userService.getViewById(8L);
+        var second = userService.getViewById(8L);
+
+        assertThat(second.getLeft()).isInstanceOf(NoSuchElementException.class);
+        verify(userRepository, times(1)).findViewById(8L);
+    }
+
+    @Test
+    void getViewsByIds_shouldKeepRequestOrder_loadMissesWithOneQuery_andReportMissing() {
+        given(userRepository.findViewById(2L)).willReturn(Optional.of(new UserView(2L, "b@b.com", null, "B", null, 0L)));
+        userService.getViewById(2L);
+        given(userRepository.findViewsByIdIn(anyCollection())).willReturn(List.of(
+                new UserView(1L, "a@b.com", null, "A", null, 0L),
+                new UserView(3L, "c@b.com", null, "C", null, 0L)));
+
+        var batch = userService.getViewsByIds(List.of(3L, 2L, 9L, 1L, 3L)).get();
+
+        assertThat(batch.content()).extracting(UserView::id).containsExactly(3L, 2L, 1L);
+        assertThat(batch.missing()).containsExactly(9L);
+        verify(userRepository, times(1)).findViewsByIdIn(anyCollection());
+
+        // hits and the cached miss answer the next multi-get and single get without queries
+        userService.getViewsByIds(List.of(1L, 9L));
+        assertThat(userService.getViewById(9L).getLeft()).isInstanceOf(NoSuchElementException.class);
+        verify(userRepository, times(1)).findViewsByIdIn(anyCollection());
+        verify(userRepository, never()).findViewById(9L);
+    }
+
+    @Test
+    void getViewsByIds_shouldRejectEmptyOrOversizedRequests() {
+        List<Long> tooMany = LongStream.rangeClosed(1, UserServiceImpl.MAX_BATCH_IDS + 1).boxed().toList();
+
+        assertThat(userService.getViewsByIds(List.of()).getLeft()).isInstanceOf(IllegalArgumentException.class);
+        assertThat(userService.getViewsByIds(tooMany).getLeft()).isInstanceOf(IllegalArgumentException.class);
+        verify(userRepository, never()).findViewsByIdIn(anyCollection());
+    }
+
+    @Test
+    void getVersion_shouldUseCachedView_thenVersionQuery() {
+        given(userRepository.findViewById(5L)).willReturn(Optional.of(new UserView(5L, "a@b.com", null, "A", null, 3L)));
+        given(userRepository.findVersionById(6L)).willReturn(Optional.of(7L));
+        userService.getViewById(5L);
+
+        assertThat(userService.getVersion(5L).get()).isEqualTo(3L);
+        assertThat(userService.getVersion(6L).get()).isEqualTo(7L);
+        assertThat(userService.getVersion(8L).getLeft()).isInstanceOf(NoSuchElementException.class);
+        verify(userRepository, never()).findVersionById(5L);
+        verify(userRepository, never()).findViewById(6L);
+    }
 }
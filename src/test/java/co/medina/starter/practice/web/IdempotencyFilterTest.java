@@ -0,0 +1,239 @@
+package co.medina.starter.practice.web;
+
+import co.medina.starter.practice.security.RateLimitFilter;
+import co.medina.starter.practice.security.RateLimitProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IdempotencyFilterTest {
+
+    private final AtomicInteger executions = new AtomicInteger();
+    private final ExecutorService executor = Executors.newFixedThreadPool(2);
+    private CountDownLatch started = new CountDownLatch(0);
+    private CountDownLatch release = new CountDownLatch(0);
+    private int status = 201;
+
+    private final FilterChain chain = (request, response) -> {
+        int id = executions.incrementAndGet();
+        started.countDown();
+        try {
+            release.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        request.getInputStream().readAllBytes();
+        HttpServletResponse http = (HttpServletResponse) response;
+        http.setStatus(status);
+        http.setHeader("Location", "/v1/api/users/" + id);
+        http.setContentType("application/json");
+        http.getWriter().write("{\"id\":" + id + "}");
+    };
+
+    @AfterEach
+    void shutdown() {
+        release.countDown();
+        executor.shutdownNow();
+    }
+
+    @Test
+    void retryWithSameKeyAndBody_replaysFirstResponse() throws Exception {
+        IdempotencyFilter filter = filter(Duration.ofSeconds(5));
+
+        MockHttpServletResponse first = send(filter, create("10.0.0.1", "k1", "{\"name\":\"Ana\"}"));
+        MockHttpServletResponse retry = send(filter, create("10.0.0.1", "k1", "{\"name\":\"Ana\"}"));
+
+        assertThat(executions).hasValue(1);
+        assertThat(first.getStatus()).isEqualTo(201);
+        assertThat(first.getHeader(IdempotencyFilter.REPLAYED)).isNull();
+        assertThat(retry.getStatus()).isEqualTo(201);
+        assertThat(retry.getContentAsString()).isEqualTo("{\"id\":1}");
+        assertThat(retry.getHeader("Location")).isEqualTo("/v1/api/users/1");
+        assertThat(retry.getHeader(IdempotencyFilter.REPLAYED)).isEqualTo("true");
+    }
+
+    @Test
+    void sameKeyWithDifferentBody_isRejected() throws Exception {
+        IdempotencyFilter filter = filter(Duration.ofSeconds(5));
+        send(filter, create("10.0.0.1", "k1", "{\"name\":\"Ana\"}"));
+
+        MockHttpServletResponse response = send(filter, create("10.0.0.1", "k1", "{\"name\":\"Eva\"}"));
+
+        assertThat(response.getStatus()).isEqualTo(422);
+        assertThat(executions).hasValue(1);
+    }
+
+    @Test
+    void keysAreScopedPerClient() throws Exception {
+        IdempotencyFilter filter = filter(Duration.ofSeconds(5));
+
+        send(filter, create("10.0.0.1", "k1", "{}"));
+        send(filter, create("10.0.0.2", "k1", "{}"));
+
+        assertThat(executions).hasValue(2);
+    }
+
+    @Test
+    void serverErrorsAreNotStored() throws Exception {
+        IdempotencyFilter filter = filter(Duration.ofSeconds(5));
+        status = 503;
+        send(filter, create("10.0.0.1", "k1", "{}"));
+        status = 201;
+
+        MockHttpServletResponse retry = send(filter, create("10.0.0.1", "k1", "{}"));
+
+        assertThat(executions).hasValue(2);
+        assertThat(retry.getStatus()).isEqualTo(201);
+        assertThat(retry.getHeader(IdempotencyFilter.REPLAYED)).isNull();
+    }
+
+    @Test
+    void concurrentRetry_waitsForOriginalAndReplaysIt() throws Exception {
+        IdempotencyFilter filter = filter(Duration.ofSeconds(5));
+        started = new CountDownLatch(1);
+        release = new CountDownLatch(1);
+
+        Future<MockHttpServletResponse> original = executor.submit(() -> send(filter, create("10.0.0.1", "k1", "{}")));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        Future<MockHttpServletResponse> retry = executor.submit(() -> send(filter, create("10.0.0.1", "k1", "{}")));
+        release.countDown();
+
+        assertThat(original.get(5, TimeUnit.SECONDS).getStatus()).isEqualTo(201);
+        assertThat(retry.get(5, TimeUnit.SECONDS).getContentAsString()).isEqualTo("{\"id\":1}");
+        assertThat(executions).hasValue(1);
+    }
+
+    @Test
+    void retryWhileOriginalIsStillRunning_getsConflictAfterTimeout() throws Exception {
+        IdempotencyFilter filter = filter(Duration.ofMillis(50));
+        started = new CountDownLatch(1);
+        release = new CountDownLatch(1);
+
+        Future<MockHttpServletResponse> original = executor.submit(() -> send(filter, create("10.0.0.1", "k1", "{}")));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+        MockHttpServletResponse retry = send(filter, create("10.0.0.1", "k1", "{}"));
+        release.countDown();
+
+        assertThat(retry.getStatus()).isEqualTo(409);
+        assertThat(original.get(5, TimeUnit.SECONDS).getStatus()).isEqualTo(201);
+        assertThat(executions).hasValue(1);
+    }
+
+    @Test
+    void requestsWithoutKeyOrOnOtherPaths_passThrough() throws Exception {
+        IdempotencyFilter filter = filter(Duration.ofSeconds(5));
+        MockHttpServletRequest noKey = create("10.0.0.1", "k1", "{}");
+        noKey.removeHeader(IdempotencyFilter.IDEMPOTENCY_KEY);
+        MockHttpServletRequest otherPath = create("10.0.0.1", "k1", "{}");
+        otherPath.setRequestURI("/v1/auth/login");
+
+        for (int i = 0; i < 2; i++) {
+            send(filter, noKey);
+            send(filter, otherPath);
+        }
+
+        assertThat(executions).hasValue(4);
+    }
+
+    @Test
+    void rejectsBlankKeyAndOversizedBody() throws Exception {
+        IdempotencyFilter filter = filter(Duration.ofSeconds(5));
+
+        assertThat(send(filter, create("10.0.0.1", " ", "{}")).getStatus()).isEqualTo(400);
+        assertThat(send(filter, create("10.0.0.1", "k1", "x".repeat(2048))).getStatus()).isEqualTo(413);
+        assertThat(executions).hasValue(0);
+    }
+
+    @Test
+    void anonymousRetry_isReplayedAheadOfTheRateLimiter() throws Exception {
+        IdempotencyFilter filter = filter(Duration.ofSeconds(5));
+        RateLimitFilter rateLimit = new RateLimitFilter(new RateLimitProperties(true, 1_000, Duration.ofMinutes(10), Map.of(
+                "register", new RateLimitProperties.Route("/v1/auth/register", "POST", RateLimitProperties.KeyType.IP, 1, Duration.ofMinutes(10)))),
+                new ObjectMapper());
+        OncePerRequestFilter replay = filter.anonymousReplayFilter();
+        // registration order: replay, rate limiter, (security,) idempotency
+        FilterChain filters = (request, response) -> replay.doFilter(request, response,
+                (afterReplay, r1) -> rateLimit.doFilter(afterReplay, r1,
+                        (afterLimit, r2) -> filter.doFilter(afterLimit, r2, chain)));
+
+        MockHttpServletResponse first = send(filters, register("10.0.0.1", "k1", "{\"name\":\"Ana\"}"));
+        MockHttpServletResponse retry = send(filters, register("10.0.0.1", "k1", "{\"name\":\"Ana\"}"));
+        MockHttpServletResponse other = send(filters, register("10.0.0.1", "k2", "{\"name\":\"Eva\"}"));
+
+        assertThat(first.getStatus()).isEqualTo(201);
+        assertThat(retry.getStatus()).isEqualTo(201);
+        assertThat(retry.getContentAsString()).isEqualTo("{\"id\":1}");
+        assertThat(retry.getHeader(IdempotencyFilter.REPLAYED)).isEqualTo("true");
+        // the retry did not spend the only token, the first request did
+        assertThat(other.getStatus()).isEqualTo(429);
+        assertThat(executions).hasValue(1);
+    }
+
+    @Test
+    void anonymousReplay_leavesRequestsWithCredentialsToTheFilterBehindSecurity() throws Exception {
+        IdempotencyFilter filter = filter(Duration.ofSeconds(5));
+        send(filter, create("10.0.0.1", "k1", "{\"name\":\"Ana\"}"));
+        MockHttpServletRequest authenticated = create("10.0.0.1", "k1", "{\"name\":\"Ana\"}");
+        authenticated.addHeader("Authorization", "Bearer token");
+        MockFilterChain next = new MockFilterChain();
+
+        filter.anonymousReplayFilter().doFilter(authenticated, new MockHttpServletResponse(), next);
+
+        assertThat(next.getRequest()).isSameAs(authenticated);
+    }
+
+    private static IdempotencyFilter filter(Duration inFlightTimeout) {
+        return new IdempotencyFilter(new IdempotencyProperties(true, List.of("/v1/api/users", "/v1/auth/register"),
+                Duration.ofHours(24), 1_000, inFlightTimeout, DataSize.ofKilobytes(1)));
+    }
+
+    private MockHttpServletResponse send(IdempotencyFilter filter, MockHttpServletRequest request) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, chain);
+        return response;
+    }
+
+    private static MockHttpServletResponse send(FilterChain filters, MockHttpServletRequest request) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filters.doFilter(request, response);
+        return response;
+    }
+
+    private static MockHttpServletRequest create(String ip, String key, String body) {
+        return post("/v1/api/users", ip, key, body);
+    }
+
+    private static MockHttpServletRequest register(String ip, String key, String body) {
+        return post("/v1/auth/register", ip, key, body);
+    }
+
+    private static MockHttpServletRequest post(String path, String ip, String key, String body) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", path);
+        request.setRemoteAddr(ip);
+        request.addHeader(IdempotencyFilter.IDEMPOTENCY_KEY, key);
+        request.setContentType("application/json");
+        request.setContent(body.getBytes(StandardCharsets.UTF_8));
+        return request;
+    }
+}